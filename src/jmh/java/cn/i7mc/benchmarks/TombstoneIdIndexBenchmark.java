@@ -0,0 +1,152 @@
+package cn.i7mc.benchmarks;
+
+import cn.i7mc.utils.LongObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 墓碑ID索引基准测试 - 对比按ID遍历位置索引与LongObjectMap主索引的查找和移除
+ * 墓碑实例依赖Bukkit运行环境，这里用只包含ID和方块坐标的记录代替，位置索引与TombstoneManager一样以坐标为键
+ * 运行: gradle jmh
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TombstoneIdIndexBenchmark {
+
+    @Param({"10000", "100000"})
+    private int tombstoneCount;
+
+    private Map<BlockKey, Tombstone> tombstonesByLocation;
+    private LongObjectMap<Tombstone> tombstonesById;
+    // 按随机顺序访问的墓碑ID，避免只命中位置索引的开头
+    private long[] lookupIds;
+    private int cursor;
+
+    /**
+     * 构建位置索引和ID索引
+     */
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        tombstonesByLocation = new HashMap<>();
+        tombstonesById = new LongObjectMap<>(tombstoneCount);
+        lookupIds = new long[tombstoneCount];
+
+        for (int i = 0; i < tombstoneCount; i++) {
+            long id = i + 1;
+            Tombstone tombstone = new Tombstone(id,
+                new BlockKey(random.nextInt(60000) - 30000, random.nextInt(256), random.nextInt(60000) - 30000));
+            if (tombstonesByLocation.putIfAbsent(tombstone.location(), tombstone) != null) {
+                i--;
+                continue;
+            }
+            tombstonesById.put(id, tombstone);
+            lookupIds[i] = id;
+        }
+
+        for (int i = lookupIds.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = lookupIds[i];
+            lookupIds[i] = lookupIds[j];
+            lookupIds[j] = swap;
+        }
+    }
+
+    /**
+     * 旧实现：遍历位置索引查找ID
+     */
+    @Benchmark
+    public Tombstone lookupByScan() {
+        long id = nextId();
+        return tombstonesByLocation.values().stream()
+            .filter(tombstone -> tombstone.id() == id)
+            .findFirst()
+            .orElse(null);
+    }
+
+    /**
+     * 新实现：ID主索引查找
+     */
+    @Benchmark
+    public Tombstone lookupByIndex() {
+        return tombstonesById.get(nextId());
+    }
+
+    /**
+     * 旧实现：遍历查找墓碑，再遍历一次找到位置后移除，最后放回以保持数据量不变
+     */
+    @Benchmark
+    public Tombstone removeByScan() {
+        long id = nextId();
+        Tombstone tombstone = tombstonesByLocation.values().stream()
+            .filter(candidate -> candidate.id() == id)
+            .findFirst()
+            .orElse(null);
+
+        BlockKey location = null;
+        for (Map.Entry<BlockKey, Tombstone> entry : tombstonesByLocation.entrySet()) {
+            if (entry.getValue().id() == id) {
+                location = entry.getKey();
+                break;
+            }
+        }
+
+        Tombstone removed = tombstonesByLocation.remove(location);
+        tombstonesByLocation.put(location, tombstone);
+        return removed;
+    }
+
+    /**
+     * 新实现：ID主索引定位后同步移除两个索引，最后放回以保持数据量不变
+     */
+    @Benchmark
+    public Tombstone removeByIndex() {
+        long id = nextId();
+        Tombstone tombstone = tombstonesById.remove(id);
+        Tombstone removed = tombstonesByLocation.remove(tombstone.location());
+        tombstonesByLocation.put(tombstone.location(), tombstone);
+        tombstonesById.put(id, tombstone);
+        return removed;
+    }
+
+    /**
+     * 获取下一个待访问的墓碑ID
+     */
+    private long nextId() {
+        long id = lookupIds[cursor];
+        cursor = cursor + 1 == lookupIds.length ? 0 : cursor + 1;
+        return id;
+    }
+
+    /**
+     * 方块坐标记录类
+     */
+    public record BlockKey(int x, int y, int z) {}
+
+    /**
+     * 墓碑记录类
+     */
+    public record Tombstone(long id, BlockKey location) {}
+}
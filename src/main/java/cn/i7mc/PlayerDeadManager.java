@@ -4,12 +4,15 @@ import cn.i7mc.commands.PDMCommand;
 import cn.i7mc.listeners.InventoryClickListener;
 import cn.i7mc.listeners.PlayerDeathListener;
 import cn.i7mc.listeners.PlayerInteractListener;
+import cn.i7mc.listeners.TombstoneChunkListener;
 import cn.i7mc.listeners.TombstoneProtectionListener;
 import cn.i7mc.managers.ConfigManager;
 import cn.i7mc.managers.DataManager;
 import cn.i7mc.managers.EconomyManager;
 import cn.i7mc.managers.GUIManager;
 import cn.i7mc.managers.MessageManager;
+import cn.i7mc.managers.MySQLDataManager;
+import cn.i7mc.managers.ProtectionListenerManager;
 import cn.i7mc.managers.TombstoneManager;
 import cn.i7mc.managers.VipExemptionManager;
 import cn.i7mc.managers.VipTimeManager;
@@ -36,6 +39,7 @@ public class PlayerDeadManager extends JavaPlugin {
     private VipTimeManager vipTimeManager;
     private VipExemptionManager vipExemptionManager;
     private WorldConfigManager worldConfigManager;
+    private ProtectionListenerManager protectionListenerManager;
 
     @Override
     public void onEnable() {
@@ -84,7 +88,7 @@ public class PlayerDeadManager extends JavaPlugin {
         messageManager = new MessageManager(this, configManager);
 
         // 初始化数据管理器
-        dataManager = new DataManager(this);
+        dataManager = createDataManager();
 
         // 初始化GUI管理器
         guiManager = new GUIManager();
@@ -111,6 +115,24 @@ public class PlayerDeadManager extends JavaPlugin {
         getLogger().info("管理器初始化完成");
     }
 
+    /**
+     * 创建数据管理器
+     * 根据database.type选择存储后端
+     *
+     * @return 数据管理器
+     */
+    private DataManager createDataManager() {
+        String type = configManager.getString("database.type", "sqlite").toLowerCase();
+        return switch (type) {
+            case "mysql", "mariadb" -> new MySQLDataManager(this, configManager);
+            case "sqlite" -> new DataManager(this);
+            default -> {
+                getLogger().warning("未知的数据库类型: " + type + "，使用SQLite");
+                yield new DataManager(this);
+            }
+        };
+    }
+
     /**
      * 注册事件监听器
      * 统一的监听器注册方法
@@ -120,6 +142,11 @@ public class PlayerDeadManager extends JavaPlugin {
         getServer().getPluginManager().registerEvents(new PlayerInteractListener(this), this);
         getServer().getPluginManager().registerEvents(new InventoryClickListener(this), this);
         getServer().getPluginManager().registerEvents(new TombstoneProtectionListener(this, configManager, messageManager, tombstoneManager), this);
+        getServer().getPluginManager().registerEvents(new TombstoneChunkListener(this), this);
+
+        // 高频的环境保护监听器按需注册
+        protectionListenerManager = new ProtectionListenerManager(this);
+        protectionListenerManager.refresh();
 
         getLogger().info("事件监听器注册完成");
     }
@@ -151,6 +178,16 @@ public class PlayerDeadManager extends JavaPlugin {
             configManager.reloadConfigs();
         }
 
+        // 重新解析缓存的设置并重建墓碑视觉效果
+        if (tombstoneManager != null) {
+            tombstoneManager.reloadSettings();
+        }
+
+        // 世界头颅保护配置可能已变化
+        if (protectionListenerManager != null) {
+            protectionListenerManager.refresh();
+        }
+
         if (messageManager != null) {
             messageManager.sendMessage(getServer().getConsoleSender(), "plugin.reload");
         }
@@ -341,6 +378,15 @@ public class PlayerDeadManager extends JavaPlugin {
         return worldConfigManager;
     }
 
+    /**
+     * 获取保护监听器管理器
+     *
+     * @return 保护监听器管理器实例，监听器注册前返回null
+     */
+    public ProtectionListenerManager getProtectionListenerManager() {
+        return protectionListenerManager;
+    }
+
     /**
      * 启动VIP豁免清理任务
      * 统一的清理任务启动方法
@@ -5,9 +5,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 数据管理抽象类 - 统一处理数据存储相关逻辑
@@ -18,7 +23,29 @@ import java.util.UUID;
  */
 public abstract class AbstractDataManager {
     
+    /**
+     * 连接验证结果缓存时间（毫秒）
+     */
+    private static final long VALIDATION_INTERVAL_MILLIS = 30_000L;
+
+    /**
+     * 单连接预编译语句缓存上限
+     */
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
     protected Connection connection;
+    protected final ReentrantLock connectionLock = new ReentrantLock();
+    private long lastValidationTime;
+    private final Map<String, PreparedStatement> statementCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() > STATEMENT_CACHE_SIZE) {
+                safeClose(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
     
     /**
      * 初始化数据库连接
@@ -83,13 +110,26 @@ public abstract class AbstractDataManager {
     
     /**
      * 检查数据库连接是否有效
-     * 统一的连接检查方法
+     * 统一的连接检查方法，验证结果会缓存一段时间，避免每次操作都向数据库发起验证
      * 
      * @return 连接是否有效
      */
     protected boolean isConnectionValid() {
         try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+            if (connection == null || connection.isClosed()) {
+                return false;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastValidationTime < VALIDATION_INTERVAL_MILLIS) {
+                return true;
+            }
+
+            boolean valid = connection.isValid(5);
+            if (valid) {
+                lastValidationTime = now;
+            }
+            return valid;
         } catch (SQLException e) {
             return false;
         }
@@ -107,6 +147,38 @@ public abstract class AbstractDataManager {
             initializeDatabase();
         }
     }
+
+    /**
+     * 获取数据库连接
+     * 默认实现独占单一连接，使用完毕后必须调用releaseConnection释放
+     * 连接池实现可重写此方法从连接池借出连接
+     *
+     * @return 数据库连接
+     * @throws SQLException 数据库异常
+     */
+    @NotNull
+    protected Connection acquireConnection() throws SQLException {
+        connectionLock.lock();
+        try {
+            if (!isConnectionValid()) {
+                reconnectDatabase();
+            }
+            return connection;
+        } catch (SQLException e) {
+            connectionLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * 释放数据库连接
+     * 与acquireConnection成对调用
+     *
+     * @param connection 数据库连接
+     */
+    protected void releaseConnection(@NotNull Connection connection) {
+        connectionLock.unlock();
+    }
     
     /**
      * 执行数据库事务
@@ -116,23 +188,98 @@ public abstract class AbstractDataManager {
      * @throws SQLException 数据库异常
      */
     protected void executeTransaction(@NotNull DatabaseTransaction transaction) throws SQLException {
-        if (!isConnectionValid()) {
-            reconnectDatabase();
+        Connection connection = acquireConnection();
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            try {
+                connection.setAutoCommit(false);
+                transaction.execute(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            releaseConnection(connection);
         }
-        
-        boolean autoCommit = connection.getAutoCommit();
+    }
+
+    /**
+     * 执行数据库操作
+     * 统一的非事务操作方法，自动获取和释放连接
+     *
+     * @param operation 数据库操作
+     * @param <T> 返回值类型
+     * @return 操作结果
+     * @throws SQLException 数据库异常
+     */
+    protected <T> T executeOperation(@NotNull DatabaseOperation<T> operation) throws SQLException {
+        Connection connection = acquireConnection();
         try {
-            connection.setAutoCommit(false);
-            transaction.execute(connection);
-            connection.commit();
-        } catch (SQLException e) {
-            connection.rollback();
-            throw e;
+            return operation.execute(connection);
         } finally {
-            connection.setAutoCommit(autoCommit);
+            releaseConnection(connection);
         }
     }
     
+    /**
+     * 获取预编译语句
+     * 统一的语句获取方法，单连接模式下按SQL复用已编译的语句
+     * 返回的语句由缓存或连接池管理，调用方只需关闭ResultSet，不应关闭语句本身
+     *
+     * @param connection 通过acquireConnection获取的连接
+     * @param sql SQL语句
+     * @return 预编译语句
+     * @throws SQLException 数据库异常
+     */
+    @NotNull
+    protected PreparedStatement prepareCached(@NotNull Connection connection, @NotNull String sql) throws SQLException {
+        return prepareCached(connection, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    /**
+     * 获取预编译语句
+     * 统一的语句获取方法，可指定是否返回自增主键
+     *
+     * @param connection 通过acquireConnection获取的连接
+     * @param sql SQL语句
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS 或 Statement.NO_GENERATED_KEYS
+     * @return 预编译语句
+     * @throws SQLException 数据库异常
+     */
+    @NotNull
+    protected PreparedStatement prepareCached(@NotNull Connection connection, @NotNull String sql,
+                                              int autoGeneratedKeys) throws SQLException {
+        // 连接池借出的连接由驱动缓存语句，归还连接时统一关闭
+        if (connection != this.connection) {
+            return connection.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys + ":" + sql;
+        PreparedStatement statement = statementCache.get(key);
+        if (statement == null || statement.isClosed()) {
+            statement = connection.prepareStatement(sql, autoGeneratedKeys);
+            statementCache.put(key, statement);
+        } else {
+            // 清除上次异常中断时残留的批处理
+            statement.clearBatch();
+        }
+        return statement;
+    }
+
+    /**
+     * 清空预编译语句缓存
+     * 关闭连接前调用
+     */
+    protected void clearStatementCache() {
+        for (PreparedStatement statement : statementCache.values()) {
+            safeClose(statement);
+        }
+        statementCache.clear();
+    }
+    
     /**
      * 数据库事务接口
      */
@@ -140,6 +287,16 @@ public abstract class AbstractDataManager {
     protected interface DatabaseTransaction {
         void execute(@NotNull Connection connection) throws SQLException;
     }
+
+    /**
+     * 数据库操作接口
+     *
+     * @param <T> 返回值类型
+     */
+    @FunctionalInterface
+    protected interface DatabaseOperation<T> {
+        T execute(@NotNull Connection connection) throws SQLException;
+    }
     
     /**
      * 获取当前时间戳
@@ -5,7 +5,12 @@ import cn.i7mc.guis.TeleportGUI;
 import cn.i7mc.managers.ConfigManager;
 import cn.i7mc.managers.DataManager;
 import cn.i7mc.managers.MessageManager;
+import cn.i7mc.managers.ProtectionListenerManager;
 import cn.i7mc.managers.TombstoneManager;
+import cn.i7mc.utils.EntityCleanupManager;
+import cn.i7mc.utils.EntityCleanupSweep;
+import cn.i7mc.utils.GuidanceTracker;
+import cn.i7mc.utils.VisualLodController;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -18,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * PDM主命令处理器 - 统一处理所有插件命令
@@ -99,6 +105,14 @@ public class PDMCommand implements CommandExecutor, TabCompleter {
                 handleCleanupCommand(sender, subArgs);
                 yield true;
             }
+            case "stats" -> {
+                handleStatsCommand(sender, subArgs);
+                yield true;
+            }
+            case "guide" -> {
+                handleGuideCommand(sender, subArgs);
+                yield true;
+            }
             default -> {
                 sendUnknownCommandMessage(sender, subCommand);
                 yield true;
@@ -330,42 +344,130 @@ public class PDMCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        // 发送开始清理消息
         Map<String, String> placeholders = messageManager.createPlaceholders();
         if (sender instanceof Player player) {
             messageManager.addPlayerPlaceholders(placeholders, player);
         }
+        EntityCleanupManager entityCleanupManager = tombstoneManager.getEntityCleanupManager();
+
+        // 取消正在运行的清理
+        if (args.length > 0 && args[0].equalsIgnoreCase("cancel")) {
+            if (!entityCleanupManager.cancelSweep()) {
+                messageManager.sendMessage(sender, "commands.cleanup.not-running", placeholders);
+            }
+            return;
+        }
+
+        // 已有清理在运行时只汇报进度
+        EntityCleanupSweep sweep = entityCleanupManager.getSweep();
+        if (sweep != null) {
+            sweep.sendProgress(sender, "commands.cleanup.already-running");
+            return;
+        }
+
+        // 按区块分片清理，进度定期发送给发起者
+        UUID requesterId = sender instanceof Player player ? player.getUniqueId() : null;
+        entityCleanupManager.startSweep(requesterId);
         messageManager.sendMessage(sender, "commands.cleanup.start", placeholders);
+    }
+    
+    /**
+     * 处理引导命令
+     * 统一的引导开关方法，开启后持续显示指向当前世界最近墓碑的粒子路径
+     *
+     * @param sender 命令发送者
+     * @param args 命令参数
+     */
+    private void handleGuideCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        // 只允许玩家使用
+        if (!(sender instanceof Player player)) {
+            Map<String, String> placeholders = messageManager.createPlaceholders();
+            messageManager.sendMessage(sender, "commands.player-only", placeholders);
+            return;
+        }
 
-        // 在主线程执行清理操作，避免异步访问方块状态错误
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
-            try {
-                // 获取EntityCleanupManager
-                cn.i7mc.utils.EntityCleanupManager entityCleanupManager =
-                    tombstoneManager.getEntityCleanupManager();
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        messageManager.addPlayerPlaceholders(placeholders, player);
 
-                // 执行清理
-                entityCleanupManager.cleanupAllTombstoneEntities();
+        // 检查权限
+        if (!player.hasPermission("playerdeadmanager.guide")) {
+            messageManager.sendMessage(player, "permission.no-guide", placeholders);
+            return;
+        }
 
-                // 发送完成消息
-                Map<String, String> completePlaceholders = messageManager.createPlaceholders();
-                if (sender instanceof Player player) {
-                    messageManager.addPlayerPlaceholders(completePlaceholders, player);
-                }
-                messageManager.sendMessage(sender, "commands.cleanup.complete", completePlaceholders);
+        GuidanceTracker guidanceTracker = tombstoneManager.getGuidanceTracker();
 
-            } catch (Exception e) {
-                plugin.getLogger().severe("清理残留实体时发生错误: " + e.getMessage());
-                e.printStackTrace();
+        // 关闭引导不受配置和墓碑数量限制
+        if (guidanceTracker.isGuided(player.getUniqueId())) {
+            guidanceTracker.toggle(player);
+            messageManager.sendMessage(player, "commands.guide.disabled", placeholders);
+            return;
+        }
 
-                // 发送错误消息
-                Map<String, String> errorPlaceholders = messageManager.createPlaceholders();
-                if (sender instanceof Player player) {
-                    messageManager.addPlayerPlaceholders(errorPlaceholders, player);
-                }
-                messageManager.sendMessage(sender, "commands.cleanup.error", errorPlaceholders);
-            }
-        });
+        if (!configManager.getBoolean("notifications.visual-guidance", true)) {
+            messageManager.sendMessage(player, "commands.guide.unavailable", placeholders);
+            return;
+        }
+
+        if (tombstoneManager.getNearestTombstone(player) == null) {
+            messageManager.sendMessage(player, "commands.guide.no-tombstone", placeholders);
+            return;
+        }
+
+        guidanceTracker.toggle(player);
+        messageManager.sendMessage(player, "commands.guide.enabled", placeholders);
+    }
+    
+    /**
+     * 处理统计命令
+     * 统一的运行统计查看方法
+     *
+     * @param sender 命令发送者
+     * @param args 命令参数
+     */
+    private void handleStatsCommand(@NotNull CommandSender sender, @NotNull String[] args) {
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        if (sender instanceof Player player) {
+            messageManager.addPlayerPlaceholders(placeholders, player);
+        }
+
+        // 检查权限
+        if (!sender.hasPermission("playerdeadmanager.admin.stats")) {
+            messageManager.sendMessage(sender, "permission.no-stats", placeholders);
+            return;
+        }
+
+        long checks = tombstoneManager.getProtectionFilterChecks();
+        long rejects = tombstoneManager.getProtectionFilterRejects();
+        double rejectRate = checks == 0 ? 0.0 : rejects * 100.0 / checks;
+
+        placeholders.put("active", String.valueOf(tombstoneManager.getActiveTombstonesCount()));
+        placeholders.put("pending", String.valueOf(tombstoneManager.getPendingRestoreCount()));
+        placeholders.put("checks", String.valueOf(checks));
+        placeholders.put("rejects", String.valueOf(rejects));
+        placeholders.put("reject_rate", String.format("%.1f", rejectRate));
+        placeholders.put("holograms", String.valueOf(tombstoneManager.getHologramCount()));
+        placeholders.put("particles", String.valueOf(tombstoneManager.getParticleEffectCount()));
+        placeholders.put("guided", String.valueOf(tombstoneManager.getGuidanceTracker().getGuidedCount()));
+        placeholders.put("visual_active", String.valueOf(tombstoneManager.getVisualActiveCount()));
+        placeholders.put("visual_culled", String.valueOf(tombstoneManager.getVisualCulledCount()));
+
+        VisualLodController lodController = tombstoneManager.getVisualLodController();
+        placeholders.put("level", lodController.getLevel().getConfigName());
+        placeholders.put("mspt", String.format("%.1f", lodController.getLastTickTime()));
+        placeholders.put("tps", String.format("%.1f", plugin.getServer().getTPS()[0]));
+
+        ProtectionListenerManager protectionListenerManager = plugin.getProtectionListenerManager();
+        placeholders.put("environment", String.valueOf(protectionListenerManager != null && protectionListenerManager.isEnvironmentRegistered()));
+        placeholders.put("explosion", String.valueOf(protectionListenerManager != null && protectionListenerManager.isExplosionRegistered()));
+
+        messageManager.sendMessage(sender, "commands.stats.header", placeholders);
+        messageManager.sendMessage(sender, "commands.stats.tombstones", placeholders);
+        messageManager.sendMessage(sender, "commands.stats.visuals", placeholders);
+        messageManager.sendMessage(sender, "commands.stats.visibility", placeholders);
+        messageManager.sendMessage(sender, "commands.stats.visual-level", placeholders);
+        messageManager.sendMessage(sender, "commands.stats.protection-filter", placeholders);
+        messageManager.sendMessage(sender, "commands.stats.protection-listeners", placeholders);
     }
     
     /**
@@ -384,8 +486,10 @@ public class PDMCommand implements CommandExecutor, TabCompleter {
         messageManager.sendMessage(sender, "commands.help.list", placeholders);
         messageManager.sendMessage(sender, "commands.help.gui", placeholders);
         messageManager.sendMessage(sender, "commands.help.teleport", placeholders);
+        messageManager.sendMessage(sender, "commands.help.guide", placeholders);
         messageManager.sendMessage(sender, "commands.help.reload", placeholders);
         messageManager.sendMessage(sender, "commands.help.cleanup", placeholders);
+        messageManager.sendMessage(sender, "commands.help.stats", placeholders);
         messageManager.sendMessage(sender, "commands.help.info", placeholders);
     }
     
@@ -459,20 +563,29 @@ public class PDMCommand implements CommandExecutor, TabCompleter {
         
         if (args.length == 1) {
             // 第一级子命令补全
-            List<String> subCommands = Arrays.asList("help", "reload", "list", "gui", "teleport", "info", "cleanup");
+            List<String> subCommands = Arrays.asList("help", "reload", "list", "gui", "teleport", "info", "guide", "cleanup", "stats");
             String input = args[0].toLowerCase();
 
             for (String subCommand : subCommands) {
-                String permission = subCommand.equals("cleanup") ? "playerdeadmanager.admin.cleanup" : "playerdeadmanager." + subCommand;
+                String permission = switch (subCommand) {
+                    case "cleanup", "stats" -> "playerdeadmanager.admin." + subCommand;
+                    default -> "playerdeadmanager." + subCommand;
+                };
                 if (subCommand.startsWith(input) && sender.hasPermission(permission)) {
                     completions.add(subCommand);
                 }
             }
+        } else if (args.length == 2 && (args[0].equalsIgnoreCase("cleanup") || args[0].equalsIgnoreCase("clean"))) {
+            // 清理命令的取消参数补全
+            if ("cancel".startsWith(args[1].toLowerCase())
+                    && sender.hasPermission("playerdeadmanager.admin.cleanup")) {
+                completions.add("cancel");
+            }
         } else if (args.length == 2 && args[0].equalsIgnoreCase("teleport")) {
             // 传送命令的墓碑索引补全
             if (sender instanceof Player player) {
-                List<DataManager.TombstoneData> tombstones = tombstoneManager.getPlayerTombstones(player.getUniqueId());
-                for (int i = 1; i <= tombstones.size(); i++) {
+                int tombstoneCount = tombstoneManager.getPlayerTombstoneCount(player.getUniqueId());
+                for (int i = 1; i <= tombstoneCount; i++) {
                     completions.add(String.valueOf(i));
                 }
             }
@@ -12,6 +12,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -36,6 +37,8 @@ public class TombstoneItemsGUI extends AbstractGUI {
     private final TombstoneManager tombstoneManager;
     private final PlayerTombstone tombstone;
     private List<DataManager.TombstoneItemData> tombstoneItems;
+    // 打开后逐tick反序列化物品并替换占位物品的任务
+    private BukkitTask decodeTask;
     
     /**
      * 构造函数
@@ -122,42 +125,127 @@ public class TombstoneItemsGUI extends AbstractGUI {
      * 添加墓碑物品
      * 统一的墓碑物品添加方法
      * 按顺序展示掉落物品，第1-5行（45个槽位）
+     * 有摘要的物品先按摘要显示占位物品，打开后再逐tick反序列化完整物品，避免打开时一次解析所有NBT
      */
     private void addTombstoneItems() {
+        if (decodeTask != null) {
+            decodeTask.cancel();
+            decodeTask = null;
+        }
+
+        boolean hasPending = false;
+
         // 第1-5行用于展示物品（槽位0-44）
         for (int slot = 0; slot < 45; slot++) {
             if (slot < tombstoneItems.size()) {
                 DataManager.TombstoneItemData itemData = tombstoneItems.get(slot);
-                ItemStack item = itemData.item();
-
-                if (item != null && item.getType() != Material.AIR) {
-                    // 添加物品描述
-                    ItemStack displayItem = item.clone();
-                    ItemMeta meta = displayItem.getItemMeta();
-                    if (meta != null) {
-                        List<String> lore = meta.getLore();
-                        if (lore == null) {
-                            lore = new ArrayList<>();
-                        }
-                        lore.add("");
-                        lore.add(messageManager.getMessage("gui.items.click-to-take", messageManager.createPlaceholders()));
-                        meta.setLore(lore);
-                        displayItem.setItemMeta(meta);
-                    }
-                    setItem(slot, displayItem);
+                if (!itemData.isMaterialized() && itemData.hasHeader()) {
+                    // 按摘要显示占位物品，完整物品由反序列化任务替换
+                    setItem(slot, createPlaceholderItem(itemData));
+                    hasPending = true;
                 } else {
-                    // 空槽位显示为空气（不显示任何物品）
-                    setItem(slot, null);
+                    setItem(slot, createDisplayItem(itemData.item()));
                 }
             } else {
                 // 超出物品数量的槽位显示为空气
                 setItem(slot, null);
             }
         }
+
+        if (hasPending) {
+            startDecodeTask(tombstoneItems);
+        }
     }
 
+    /**
+     * 启动物品反序列化任务
+     * 每tick最多反序列化tombstone.items-gui-decode-per-tick个物品，GUI关闭或刷新后停止
+     *
+     * @param items 本次展示的物品列表
+     */
+    private void startDecodeTask(@NotNull List<DataManager.TombstoneItemData> items) {
+        int decodePerTick = Math.max(1, configManager.getInt("tombstone.items-gui-decode-per-tick", 9));
+        int[] nextSlot = new int[1];
+
+        decodeTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            // 物品列表已被刷新替换或GUI已关闭
+            if (items != tombstoneItems || !inventory.getViewers().contains(player)) {
+                stopDecodeTask();
+                return;
+            }
+
+            int decoded = 0;
+            int limit = Math.min(items.size(), 45);
+            while (nextSlot[0] < limit && decoded < decodePerTick) {
+                int slot = nextSlot[0]++;
+                DataManager.TombstoneItemData itemData = items.get(slot);
+                if (!itemData.isMaterialized()) {
+                    setItem(slot, createDisplayItem(itemData.item()));
+                    decoded++;
+                }
+            }
+
+            if (nextSlot[0] >= limit) {
+                stopDecodeTask();
+            }
+        }, 1L, 1L);
+    }
+
+    /**
+     * 停止物品反序列化任务
+     */
+    private void stopDecodeTask() {
+        if (decodeTask != null) {
+            decodeTask.cancel();
+            decodeTask = null;
+        }
+    }
+
+    /**
+     * 创建物品展示
+     * 统一的展示物品创建方法，在物品描述后追加取出提示
+     *
+     * @param item 物品
+     * @return 展示物品，物品为空时返回null
+     */
+    @Nullable
+    private ItemStack createDisplayItem(@Nullable ItemStack item) {
+        if (item == null || item.getType() == Material.AIR) {
+            // 空槽位显示为空气（不显示任何物品）
+            return null;
+        }
+
+        ItemStack displayItem = item.clone();
+        ItemMeta meta = displayItem.getItemMeta();
+        if (meta != null) {
+            List<String> lore = meta.getLore();
+            if (lore == null) {
+                lore = new ArrayList<>();
+            }
+            lore.add("");
+            lore.add(messageManager.getMessage("gui.items.click-to-take", messageManager.createPlaceholders()));
+            meta.setLore(lore);
+            displayItem.setItemMeta(meta);
+        }
+        return displayItem;
+    }
+
+    /**
+     * 创建占位物品
+     * 统一的占位物品创建方法，只使用摘要中的类型和数量，不反序列化物品
+     *
+     * @param itemData 墓碑物品数据
+     * @return 占位物品，类型未知时返回null
+     */
+    @Nullable
+    private ItemStack createPlaceholderItem(@NotNull DataManager.TombstoneItemData itemData) {
+        Material material = itemData.material();
+        if (material == null || material.isAir() || !material.isItem()) {
+            return createDisplayItem(itemData.item());
+        }
+        return createDisplayItem(new ItemStack(material, Math.max(1, itemData.amount())));
+    }
 
-    
     /**
      * 创建空槽位物品
      * 统一的空槽位创建方法
@@ -499,6 +587,7 @@ public class TombstoneItemsGUI extends AbstractGUI {
      * 统一的关闭点击处理方法
      */
     private void handleCloseClick() {
+        stopDecodeTask();
         closeGUI();
     }
     
@@ -6,7 +6,6 @@ import cn.i7mc.managers.ConfigManager;
 import cn.i7mc.managers.MessageManager;
 import cn.i7mc.managers.TombstoneManager;
 import cn.i7mc.tombstones.PlayerTombstone;
-import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -66,39 +65,11 @@ public class PlayerInteractListener implements Listener {
             return;
         }
 
-
-
-        // 检查是否为墓碑方块
-        if (isTombstoneBlock(clickedBlock)) {
-            handleTombstoneInteraction(event, player, clickedBlock);
-        }
-    }
-    
-    /**
-     * 检查是否为墓碑方块
-     * 统一的墓碑方块检查方法
-     * 
-     * @param block 方块
-     * @return 是否为墓碑方块
-     */
-    private boolean isTombstoneBlock(@NotNull Block block) {
-        // 检查方块类型是否为配置的墓碑类型
-        String configuredType = configManager.getString("tombstone.block-type", "CHEST");
-        Material tombstoneMaterial;
-        
-        try {
-            tombstoneMaterial = Material.valueOf(configuredType.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            tombstoneMaterial = Material.CHEST;
+        // 检查是否为墓碑方块（内存索引优先，只查询一次）
+        Long tombstoneId = tombstoneManager.getTombstoneId(clickedBlock);
+        if (tombstoneId != null) {
+            handleTombstoneInteraction(event, player, tombstoneId);
         }
-        
-        if (block.getType() != tombstoneMaterial) {
-            return false;
-        }
-        
-        // 检查是否有墓碑ID标记
-        Long tombstoneId = tombstoneManager.getTombstoneId(block);
-        return tombstoneId != null;
     }
     
     /**
@@ -107,10 +78,10 @@ public class PlayerInteractListener implements Listener {
      * 
      * @param event 交互事件
      * @param player 玩家
-     * @param block 墓碑方块
+     * @param tombstoneId 墓碑ID
      */
     private void handleTombstoneInteraction(@NotNull PlayerInteractEvent event, @NotNull Player player, 
-                                          @NotNull Block block) {
+                                          long tombstoneId) {
         // 取消默认交互（防止打开箱子等）
         event.setCancelled(true);
         
@@ -122,16 +93,6 @@ public class PlayerInteractListener implements Listener {
             return;
         }
         
-        // 获取墓碑ID
-        Long tombstoneId = tombstoneManager.getTombstoneId(block);
-        if (tombstoneId == null) {
-            // 方块没有墓碑ID标记
-            Map<String, String> placeholders = messageManager.createPlaceholders();
-            messageManager.addPlayerPlaceholders(placeholders, player);
-            messageManager.sendMessage(player, "tombstone.not-found", placeholders);
-            return;
-        }
-
         // 通过ID获取墓碑信息
         PlayerTombstone tombstone = tombstoneManager.getTombstoneById(tombstoneId);
         if (tombstone == null) {
@@ -145,6 +106,14 @@ public class PlayerInteractListener implements Listener {
             return;
         }
         
+        // 墓碑数据仍在写入数据库，暂不允许打开
+        if (!tombstone.isPersisted()) {
+            Map<String, String> placeholders = messageManager.createPlaceholders();
+            messageManager.addPlayerPlaceholders(placeholders, player);
+            messageManager.sendMessage(player, "tombstone.saving", placeholders);
+            return;
+        }
+
         // 检查墓碑所有权和权限
         if (!canAccessTombstone(player, tombstone)) {
             Map<String, String> placeholders = messageManager.createPlaceholders();
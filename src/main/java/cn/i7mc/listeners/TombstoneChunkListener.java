@@ -0,0 +1,65 @@
+package cn.i7mc.listeners;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.TombstoneManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 区块事件监听器 - 统一处理墓碑的延迟恢复、视觉效果生命周期和残留实体清理
+ * 遵循统一方法原则，避免重复造轮子
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class TombstoneChunkListener implements Listener {
+
+    private final TombstoneManager tombstoneManager;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     */
+    public TombstoneChunkListener(@NotNull PlayerDeadManager plugin) {
+        this.tombstoneManager = plugin.getTombstoneManager();
+    }
+
+    /**
+     * 处理区块加载事件
+     * 统一的区块加载处理方法，恢复该区块内等待恢复的墓碑并重新显示视觉效果
+     *
+     * @param event 区块加载事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(@NotNull ChunkLoadEvent event) {
+        tombstoneManager.handleChunkLoad(event.getChunk());
+    }
+
+    /**
+     * 处理区块卸载事件
+     * 统一的区块卸载处理方法，丢弃该区块内墓碑的全息图并暂停粒子效果
+     *
+     * @param event 区块卸载事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(@NotNull ChunkUnloadEvent event) {
+        tombstoneManager.handleChunkUnload(event.getChunk());
+    }
+
+    /**
+     * 处理实体加载事件
+     * 统一的残留全息图清理方法，移除旧版本保存到区块文件的全息图
+     *
+     * @param event 实体加载事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(@NotNull EntitiesLoadEvent event) {
+        tombstoneManager.getEntityCleanupManager().handleEntitiesLoad(event.getEntities());
+    }
+}
@@ -0,0 +1,266 @@
+package cn.i7mc.listeners;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.TombstoneManager;
+import cn.i7mc.tombstones.PlayerTombstone;
+import cn.i7mc.utils.LongObjectMap;
+import io.papermc.paper.event.block.BlockBreakBlockEvent;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.TNTPrimeEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 墓碑环境保护监听器 - 处理物理、流体、活塞等高频方块事件
+ * 没有活跃墓碑时由ProtectionListenerManager注销，不给这些事件增加任何开销
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class TombstoneEnvironmentListener implements Listener {
+
+    private final PlayerDeadManager plugin;
+    private final TombstoneManager tombstoneManager;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     */
+    public TombstoneEnvironmentListener(@NotNull PlayerDeadManager plugin) {
+        this.plugin = plugin;
+        this.tombstoneManager = plugin.getTombstoneManager();
+    }
+
+    /**
+     * 处理方块物理事件
+     * 统一的物理保护方法
+     *
+     * @param event 方块物理事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockPhysics(@NotNull BlockPhysicsEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑永远不受物理影响
+        }
+    }
+
+    /**
+     * 处理流体流动事件
+     * 统一的流体保护方法
+     *
+     * @param event 方块从流体事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockFromTo(@NotNull BlockFromToEvent event) {
+        Block toBlock = event.getToBlock();
+        if (tombstoneManager.isTombstoneAt(toBlock)) {
+            event.setCancelled(true); // 墓碑永远不被流体冲走
+        }
+    }
+
+    /**
+     * 处理方块形成事件
+     * 统一的方块形成保护方法
+     *
+     * @param event 方块形成事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockForm(@NotNull BlockFormEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑位置不允许方块形成
+        }
+    }
+
+    /**
+     * 处理方块蔓延事件
+     * 统一的方块蔓延保护方法
+     *
+     * @param event 方块蔓延事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockSpread(@NotNull BlockSpreadEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑位置不允许方块蔓延
+        }
+    }
+
+    /**
+     * 处理方块凋零事件
+     * 统一的凋零保护方法
+     *
+     * @param event 方块凋零事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockFade(@NotNull BlockFadeEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑永远不凋零
+        }
+    }
+
+    /**
+     * 处理方块燃烧事件
+     * 统一的燃烧保护方法
+     *
+     * @param event 方块燃烧事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockBurn(@NotNull BlockBurnEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑永远不被火烧毁
+        }
+    }
+
+    /**
+     * 处理活塞推拉事件
+     * 统一的活塞保护方法
+     *
+     * @param event 活塞伸展事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPistonExtend(@NotNull BlockPistonExtendEvent event) {
+        // 检查被推动的方块中是否有墓碑
+        for (Block block : event.getBlocks()) {
+            if (tombstoneManager.isTombstoneAt(block)) {
+                event.setCancelled(true); // 墓碑永远不被活塞推动
+                return;
+            }
+        }
+    }
+
+    /**
+     * 处理活塞收缩事件
+     * 统一的活塞保护方法
+     *
+     * @param event 活塞收缩事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPistonRetract(@NotNull BlockPistonRetractEvent event) {
+        // 检查被拉动的方块中是否有墓碑
+        for (Block block : event.getBlocks()) {
+            if (tombstoneManager.isTombstoneAt(block)) {
+                event.setCancelled(true); // 墓碑永远不被活塞拉动
+                return;
+            }
+        }
+    }
+
+    /**
+     * 处理实体改变方块事件
+     * 统一的实体保护方法
+     *
+     * @param event 实体改变方块事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onEntityChangeBlock(@NotNull EntityChangeBlockEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑永远不被实体改变
+        }
+    }
+
+    /**
+     * 处理方块破坏方块事件（Paper特有）
+     * 统一的方块间破坏保护方法
+     *
+     * @param event 方块破坏方块事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockBreakBlock(@NotNull BlockBreakBlockEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            // 清空掉落物品，防止墓碑被其他方块破坏
+            event.getDrops().clear();
+        }
+    }
+
+    /**
+     * 处理结构生长事件
+     * 统一的结构生长保护方法
+     *
+     * @param event 结构生长事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onStructureGrow(@NotNull StructureGrowEvent event) {
+        // 检查生长的方块中是否会覆盖墓碑
+        event.getBlocks().removeIf(blockState -> {
+            return tombstoneManager.isTombstoneAt(blockState.getWorld(), blockState.getX(), blockState.getY(), blockState.getZ()); // 移除会覆盖墓碑的方块状态
+        });
+    }
+
+    /**
+     * 处理TNT爆炸引燃事件
+     * 统一的TNT保护方法
+     *
+     * @param event TNT引燃事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onTNTPrime(@NotNull TNTPrimeEvent event) {
+        Block block = event.getBlock();
+        if (tombstoneManager.isTombstoneAt(block)) {
+            event.setCancelled(true); // 墓碑位置的TNT永远不被引燃
+        }
+    }
+
+    /**
+     * 处理实体爆炸后事件（监听）
+     * 统一的爆炸后检查方法
+     *
+     * @param event 实体爆炸事件
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityExplodeMonitor(@NotNull EntityExplodeEvent event) {
+        if (event.isCancelled()) {
+            return;
+        }
+
+        World world = event.getLocation().getWorld();
+        if (world == null || event.blockList().isEmpty()) {
+            return;
+        }
+
+        // 检查爆炸后是否有墓碑被意外破坏，整个方块列表只做一次批量查询
+        LongObjectMap<PlayerTombstone> destroyed = tombstoneManager.findTombstones(world, event.blockList());
+        if (destroyed.isEmpty()) {
+            return;
+        }
+
+        List<PlayerTombstone> tombstones = new ArrayList<>(destroyed.size());
+        destroyed.forEachValue(tombstone -> {
+            Location location = tombstone.getLocation();
+            plugin.getLogger().warning("检测到墓碑在爆炸中被破坏，正在恢复墓碑: " +
+                world.getName() + " " + location.getBlockX() + "," + location.getBlockY() + "," + location.getBlockZ());
+            tombstones.add(tombstone);
+        });
+
+        // 恢复墓碑方块，一次爆炸只调度一个任务
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            for (PlayerTombstone tombstone : tombstones) {
+                tombstone.createTombstone();
+            }
+        }, 1L);
+    }
+}
@@ -0,0 +1,87 @@
+package cn.i7mc.listeners;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.TombstoneManager;
+import cn.i7mc.managers.WorldConfigManager;
+import cn.i7mc.tombstones.PlayerTombstone;
+import cn.i7mc.tombstones.TombstoneSpatialIndex;
+import cn.i7mc.utils.LongObjectMap;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * 墓碑爆炸保护监听器 - 从爆炸方块列表中移除墓碑
+ * 只在有墓碑所在的世界启用头颅保护时才注册
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class TombstoneExplosionListener implements Listener {
+
+    private final TombstoneManager tombstoneManager;
+    private final WorldConfigManager worldConfigManager;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     */
+    public TombstoneExplosionListener(@NotNull PlayerDeadManager plugin) {
+        this.tombstoneManager = plugin.getTombstoneManager();
+        this.worldConfigManager = plugin.getWorldConfigManager();
+    }
+
+    /**
+     * 处理实体爆炸事件
+     * 统一的爆炸保护方法
+     * 
+     * @param event 实体爆炸事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onEntityExplode(@NotNull EntityExplodeEvent event) {
+        protectTombstones(event.getLocation().getWorld(), event.blockList());
+    }
+
+    /**
+     * 处理方块爆炸事件
+     * 统一的方块爆炸保护方法
+     * 
+     * @param event 方块爆炸事件
+     */
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onBlockExplode(@NotNull BlockExplodeEvent event) {
+        protectTombstones(event.getBlock().getWorld(), event.blockList());
+    }
+
+    /**
+     * 从爆炸方块列表中移除墓碑方块
+     * 统一的爆炸过滤方法，整个方块列表只做一次按区块分组的批量查询
+     *
+     * @param world 爆炸所在世界
+     * @param blocks 爆炸影响的方块列表
+     */
+    private void protectTombstones(@Nullable World world, @NotNull List<Block> blocks) {
+        // 检查该世界是否启用头颅保护，一次爆炸只在一个世界中
+        if (world == null || blocks.isEmpty() || !worldConfigManager.isSkullProtectionEnabled(world.getName())) {
+            return;
+        }
+
+        LongObjectMap<PlayerTombstone> tombstones = tombstoneManager.findTombstones(world, blocks);
+        if (tombstones.isEmpty()) {
+            return;
+        }
+
+        // 移除此方块，墓碑永远不被爆炸破坏
+        blocks.removeIf(block -> tombstones.containsKey(
+            TombstoneSpatialIndex.blockKey(block.getX(), block.getY(), block.getZ())));
+    }
+}
@@ -7,18 +7,13 @@ import cn.i7mc.managers.TombstoneManager;
 import cn.i7mc.managers.WorldConfigManager;
 import cn.i7mc.tombstones.PlayerTombstone;
 import cn.i7mc.utils.TimeUtil;
-import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.*;
-import org.bukkit.event.entity.EntityChangeBlockEvent;
-import org.bukkit.event.entity.EntityExplodeEvent;
-import org.bukkit.event.world.StructureGrowEvent;
 import org.bukkit.block.BlockState;
-import io.papermc.paper.event.block.BlockBreakBlockEvent;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
@@ -26,6 +21,7 @@ import java.util.Map;
 /**
  * 墓碑保护监听器 - 统一处理墓碑保护相关逻辑
  * 遵循统一方法原则，避免重复造轮子
+ * 只处理玩家触发的方块事件，高频的环境事件由ProtectionListenerManager按需注册
  * 
  * @author saga
  * @version 1.0.0
@@ -67,17 +63,12 @@ public class TombstoneProtectionListener implements Listener {
     public void onBlockBreak(@NotNull BlockBreakEvent event) {
         Block block = event.getBlock();
 
-        // 检查是否为墓碑方块
-        Long tombstoneId = tombstoneManager.getTombstoneId(block);
-        if (tombstoneId == null) {
-            return;
-        }
-
-        // 通过ID获取墓碑
-        PlayerTombstone tombstone = tombstoneManager.getTombstoneById(tombstoneId);
+        // 检查是否为墓碑方块（只查内存索引，不读取方块状态）
+        PlayerTombstone tombstone = tombstoneManager.getTombstone(block);
         if (tombstone == null) {
             return;
         }
+        long tombstoneId = tombstone.getTombstoneId();
 
         Player player = event.getPlayer();
 
@@ -132,8 +123,7 @@ public class TombstoneProtectionListener implements Listener {
         Block block = event.getBlock();
 
         // 检查是否在墓碑位置放置方块
-        Location location = block.getLocation();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(location);
+        PlayerTombstone tombstone = tombstoneManager.getTombstone(block);
 
         if (tombstone == null) {
             return;
@@ -150,51 +140,7 @@ public class TombstoneProtectionListener implements Listener {
         event.setCancelled(true);
         sendProtectionMessage(player, tombstone);
     }
-    
-    /**
-     * 处理实体爆炸事件
-     * 统一的爆炸保护方法
-     * 
-     * @param event 实体爆炸事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onEntityExplode(@NotNull EntityExplodeEvent event) {
-        // 移除爆炸影响的墓碑方块
-        event.blockList().removeIf(block -> {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-            if (tombstone != null) {
-                // 检查该世界是否启用头颅保护
-                String worldName = block.getWorld().getName();
-                if (worldConfigManager.isSkullProtectionEnabled(worldName)) {
-                    return true; // 移除此方块，墓碑永远不被爆炸破坏
-                }
-            }
-            return false;
-        });
-    }
-    
-    /**
-     * 处理方块爆炸事件
-     * 统一的方块爆炸保护方法
-     * 
-     * @param event 方块爆炸事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockExplode(@NotNull BlockExplodeEvent event) {
-        // 移除爆炸影响的墓碑方块
-        event.blockList().removeIf(block -> {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-            if (tombstone != null) {
-                // 检查该世界是否启用头颅保护
-                String worldName = block.getWorld().getName();
-                if (worldConfigManager.isSkullProtectionEnabled(worldName)) {
-                    return true; // 移除此方块，墓碑永远不被爆炸破坏
-                }
-            }
-            return false;
-        });
-    }
-    
+
     /**
      * 检查玩家是否有管理员权限
      * 统一的权限检查方法
@@ -206,154 +152,6 @@ public class TombstoneProtectionListener implements Listener {
         return worldConfigManager.hasAdminPermission(player);
     }
 
-    /**
-     * 处理方块燃烧事件
-     * 统一的燃烧保护方法
-     *
-     * @param event 方块燃烧事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockBurn(@NotNull BlockBurnEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑永远不被火烧毁
-        }
-    }
-
-    /**
-     * 处理方块凋零事件
-     * 统一的凋零保护方法
-     *
-     * @param event 方块凋零事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockFade(@NotNull BlockFadeEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑永远不凋零
-        }
-    }
-
-    /**
-     * 处理活塞推拉事件
-     * 统一的活塞保护方法
-     *
-     * @param event 活塞伸展事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onPistonExtend(@NotNull BlockPistonExtendEvent event) {
-        // 检查被推动的方块中是否有墓碑
-        for (Block block : event.getBlocks()) {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-            if (tombstone != null) {
-                event.setCancelled(true); // 墓碑永远不被活塞推动
-                return;
-            }
-        }
-    }
-
-    /**
-     * 处理活塞收缩事件
-     * 统一的活塞保护方法
-     *
-     * @param event 活塞收缩事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onPistonRetract(@NotNull BlockPistonRetractEvent event) {
-        // 检查被拉动的方块中是否有墓碑
-        for (Block block : event.getBlocks()) {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-            if (tombstone != null) {
-                event.setCancelled(true); // 墓碑永远不被活塞拉动
-                return;
-            }
-        }
-    }
-
-    /**
-     * 处理实体改变方块事件
-     * 统一的实体保护方法
-     *
-     * @param event 实体改变方块事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onEntityChangeBlock(@NotNull EntityChangeBlockEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑永远不被实体改变
-        }
-    }
-
-    /**
-     * 处理方块物理事件
-     * 统一的物理保护方法
-     *
-     * @param event 方块物理事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockPhysics(@NotNull BlockPhysicsEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑永远不受物理影响
-        }
-    }
-
-    /**
-     * 处理方块破坏方块事件（Paper特有）
-     * 统一的方块间破坏保护方法
-     *
-     * @param event 方块破坏方块事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockBreakBlock(@NotNull BlockBreakBlockEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            // 清空掉落物品，防止墓碑被其他方块破坏
-            event.getDrops().clear();
-        }
-    }
-
-    /**
-     * 处理结构生长事件
-     * 统一的结构生长保护方法
-     *
-     * @param event 结构生长事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onStructureGrow(@NotNull StructureGrowEvent event) {
-        // 检查生长的方块中是否会覆盖墓碑
-        event.getBlocks().removeIf(blockState -> {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(blockState.getLocation());
-            return tombstone != null; // 移除会覆盖墓碑的方块状态
-        });
-    }
-
-    /**
-     * 处理TNT爆炸引燃事件
-     * 统一的TNT保护方法
-     *
-     * @param event TNT引燃事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onTNTPrime(@NotNull TNTPrimeEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑位置的TNT永远不被引燃
-        }
-    }
-
     /**
      * 处理方块破坏后事件（监听）
      * 统一的墓碑破坏后清理方法
@@ -370,17 +168,12 @@ public class TombstoneProtectionListener implements Listener {
 
         Block block = event.getBlock();
 
-        // 检查是否为墓碑方块
-        Long tombstoneId = tombstoneManager.getTombstoneId(block);
-        if (tombstoneId == null) {
-            return;
-        }
-
-        // 通过ID获取墓碑
-        PlayerTombstone tombstone = tombstoneManager.getTombstoneById(tombstoneId);
+        // 检查是否为墓碑方块（只查内存索引，不读取方块状态）
+        PlayerTombstone tombstone = tombstoneManager.getTombstone(block);
         if (tombstone == null) {
             return;
         }
+        long tombstoneId = tombstone.getTombstoneId();
 
         // 墓碑头颅被破坏，立即清理整个墓碑实例
         plugin.getLogger().warning("检测到墓碑头颅被意外破坏，正在清理整个墓碑实例。墓碑ID: " + tombstoneId +
@@ -397,22 +190,6 @@ public class TombstoneProtectionListener implements Listener {
         }
     }
 
-    /**
-     * 处理流体流动事件
-     * 统一的流体保护方法
-     *
-     * @param event 方块从流体事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockFromTo(@NotNull BlockFromToEvent event) {
-        Block toBlock = event.getToBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(toBlock.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑永远不被流体冲走
-        }
-    }
-
     /**
      * 处理方块多重放置事件
      * 统一的多重放置保护方法
@@ -422,73 +199,13 @@ public class TombstoneProtectionListener implements Listener {
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockMultiPlace(@NotNull BlockMultiPlaceEvent event) {
         for (BlockState blockState : event.getReplacedBlockStates()) {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(blockState.getLocation());
-            if (tombstone != null) {
+            if (tombstoneManager.isTombstoneAt(blockState.getWorld(), blockState.getX(), blockState.getY(), blockState.getZ())) {
                 event.setCancelled(true); // 墓碑位置不允许多重放置
                 return;
             }
         }
     }
 
-    /**
-     * 处理方块形成事件
-     * 统一的方块形成保护方法
-     *
-     * @param event 方块形成事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockForm(@NotNull BlockFormEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑位置不允许方块形成
-        }
-    }
-
-    /**
-     * 处理方块蔓延事件
-     * 统一的方块蔓延保护方法
-     *
-     * @param event 方块蔓延事件
-     */
-    @EventHandler(priority = EventPriority.HIGH)
-    public void onBlockSpread(@NotNull BlockSpreadEvent event) {
-        Block block = event.getBlock();
-        PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-
-        if (tombstone != null) {
-            event.setCancelled(true); // 墓碑位置不允许方块蔓延
-        }
-    }
-
-    /**
-     * 处理实体爆炸后事件（监听）
-     * 统一的爆炸后检查方法
-     *
-     * @param event 实体爆炸事件
-     */
-    @EventHandler(priority = EventPriority.MONITOR)
-    public void onEntityExplodeMonitor(@NotNull EntityExplodeEvent event) {
-        if (event.isCancelled()) {
-            return;
-        }
-
-        // 检查爆炸后是否有墓碑被意外破坏
-        for (Block block : event.blockList()) {
-            PlayerTombstone tombstone = tombstoneManager.getTombstone(block.getLocation());
-            if (tombstone != null) {
-                plugin.getLogger().warning("检测到墓碑在爆炸中被破坏，正在恢复墓碑: " +
-                    block.getLocation().getWorld().getName() + " " +
-                    block.getLocation().getBlockX() + "," + block.getLocation().getBlockY() + "," + block.getLocation().getBlockZ());
-
-                // 恢复墓碑方块
-                plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-                    tombstone.createTombstone();
-                }, 1L);
-            }
-        }
-    }
 
     /**
      * 发送保护消息
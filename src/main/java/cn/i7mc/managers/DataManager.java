@@ -2,26 +2,46 @@ package cn.i7mc.managers;
 
 import cn.i7mc.PlayerDeadManager;
 import cn.i7mc.abstracts.AbstractDataManager;
+import cn.i7mc.utils.InventoryCodec;
+import cn.i7mc.utils.TimeUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
  * 数据管理器 - 实现SQLite数据库操作
  * 继承AbstractDataManager，遵循统一方法原则
+ * 所有数据库方法通过acquireConnection获取连接，主线程与持久化线程可安全共享同一连接
+ * SQL语句通过getTableName解析表名，MySQL等子类只需提供建表语句和连接来源
  * 
  * @author saga
  * @version 1.0.0
  */
 public class DataManager extends AbstractDataManager {
+
+    /**
+     * 单条IN语句的最大参数数量（SQLite默认上限为999）
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 900;
     
-    private final PlayerDeadManager plugin;
+    protected final PlayerDeadManager plugin;
     private final File databaseFile;
+    private final boolean packedInventories;
+    private int currentDataVersion = -1;
     
     /**
      * 构造函数
@@ -30,17 +50,22 @@ public class DataManager extends AbstractDataManager {
      */
     public DataManager(@NotNull PlayerDeadManager plugin) {
         this.plugin = plugin;
-        this.databaseFile = new File(plugin.getDataFolder(), "tombstones.db");
+        this.databaseFile = new File(plugin.getDataFolder(),
+            plugin.getConfigManager().getString("database.filename", "tombstones.db"));
+        this.packedInventories = "packed".equalsIgnoreCase(
+            plugin.getConfigManager().getString("database.inventory-format", "packed"));
     }
 
     /**
-     * 获取数据库连接
-     * 统一的连接获取方法
+     * 获取实际表名
+     * 统一的表名获取方法，子类可重写以添加表前缀
      *
-     * @return 数据库连接
+     * @param tableName 基础表名
+     * @return 实际表名
      */
-    public Connection getConnection() {
-        return connection;
+    @NotNull
+    protected String getTableName(@NotNull String tableName) {
+        return tableName;
     }
     
     /**
@@ -49,6 +74,7 @@ public class DataManager extends AbstractDataManager {
      */
     @Override
     public void initializeDatabase() throws SQLException {
+        connectionLock.lock();
         try {
             // 确保数据文件夹存在
             if (!plugin.getDataFolder().exists()) {
@@ -59,10 +85,8 @@ public class DataManager extends AbstractDataManager {
             String url = "jdbc:sqlite:" + databaseFile.getAbsolutePath();
             connection = DriverManager.getConnection(url);
             
-            // 启用外键约束
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("PRAGMA foreign_keys = ON");
-            }
+            // 启用外键约束并应用性能参数
+            applyPragmas();
             
             // 创建表
             createTables();
@@ -71,6 +95,8 @@ public class DataManager extends AbstractDataManager {
         } catch (SQLException e) {
             plugin.getLogger().severe("数据库初始化失败!");
             throw e;
+        } finally {
+            connectionLock.unlock();
         }
     }
     
@@ -80,82 +106,319 @@ public class DataManager extends AbstractDataManager {
      */
     @Override
     public void closeDatabase() {
-        if (connection != null) {
-            try {
-                connection.close();
-                plugin.getLogger().info("数据库连接已关闭");
-            } catch (SQLException e) {
-                plugin.getLogger().warning("关闭数据库连接时出错: " + e.getMessage());
+        connectionLock.lock();
+        try {
+            clearStatementCache();
+            if (connection != null) {
+                try {
+                    connection.close();
+                    plugin.getLogger().info("数据库连接已关闭");
+                } catch (SQLException e) {
+                    plugin.getLogger().warning("关闭数据库连接时出错: " + e.getMessage());
+                }
             }
+        } finally {
+            connectionLock.unlock();
         }
     }
     
+    /**
+     * 应用SQLite连接参数
+     * 统一的性能参数设置方法，WAL模式下读写互不阻塞，NORMAL同步级别避免每次提交都完整刷盘
+     *
+     * @throws SQLException 数据库异常
+     */
+    private void applyPragmas() throws SQLException {
+        ConfigManager configManager = plugin.getConfigManager();
+        String journalMode = configManager.getString("database.sqlite.journal-mode", "WAL").toUpperCase();
+        String synchronous = configManager.getString("database.sqlite.synchronous", "NORMAL").toUpperCase();
+        long mmapSize = Math.max(0, configManager.getLong("database.sqlite.mmap-size", 268435456L));
+        int cacheSize = configManager.getInt("database.sqlite.cache-size", -16000);
+        int busyTimeout = Math.max(0, configManager.getInt("database.timeout", 30)) * 1000;
+
+        if (!journalMode.matches("DELETE|TRUNCATE|PERSIST|MEMORY|WAL|OFF")) {
+            plugin.getLogger().warning("无效的SQLite日志模式: " + journalMode + "，使用WAL");
+            journalMode = "WAL";
+        }
+        if (!synchronous.matches("OFF|NORMAL|FULL|EXTRA")) {
+            plugin.getLogger().warning("无效的SQLite同步级别: " + synchronous + "，使用NORMAL");
+            synchronous = "NORMAL";
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("PRAGMA journal_mode = " + journalMode);
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeout);
+            stmt.execute("PRAGMA temp_store = MEMORY");
+        }
+    }
+
     /**
      * 创建数据库表
-     * 统一的表创建方法
+     * 统一的表创建方法，通过版本化迁移创建和升级表结构
      */
     @Override
     protected void createTables() throws SQLException {
-        // 创建墓碑数据表
-        String createTombstonesTable = """
-            CREATE TABLE IF NOT EXISTS tombstones (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                player_uuid TEXT NOT NULL,
-                world_name TEXT NOT NULL,
-                x INTEGER NOT NULL,
-                y INTEGER NOT NULL,
-                z INTEGER NOT NULL,
-                death_time BIGINT NOT NULL,
-                protection_expire BIGINT NOT NULL,
-                despawn_time BIGINT NOT NULL,
-                experience INTEGER NOT NULL,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-            )
-        """;
-
-        // 检查并添加despawn_time字段（用于数据库升级）
-        String addDespawnTimeColumn = """
-            ALTER TABLE tombstones ADD COLUMN despawn_time BIGINT DEFAULT 0
-        """;
-        
-        // 创建物品数据表
-        String createItemsTable = """
-            CREATE TABLE IF NOT EXISTS tombstone_items (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                tombstone_id INTEGER NOT NULL,
-                slot_index INTEGER NOT NULL,
-                item_data BLOB NOT NULL,
-                FOREIGN KEY (tombstone_id) REFERENCES tombstones(id) ON DELETE CASCADE
-            )
-        """;
-
-        // 创建玩家豁免记录表
-        String createExemptionsTable = """
-            CREATE TABLE IF NOT EXISTS player_exemptions (
-                id INTEGER PRIMARY KEY AUTOINCREMENT,
-                player_uuid TEXT NOT NULL,
-                exemption_date TEXT NOT NULL,
-                used_count INTEGER NOT NULL DEFAULT 0,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                UNIQUE(player_uuid, exemption_date)
-            )
-        """;
+        SchemaMigrator migrator = new SchemaMigrator(plugin, getTableName("schema_version"));
+        executeOperation(connection -> {
+            migrator.migrate(connection, getMigrations());
+            return null;
+        });
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createTombstonesTable);
-            stmt.execute(createItemsTable);
-            stmt.execute(createExemptionsTable);
+        plugin.getLogger().info("数据库表创建完成");
+    }
+
+    /**
+     * 获取结构迁移列表
+     * 统一的迁移定义方法，版本号只能追加不能修改，子类按方言重写
+     *
+     * @return 迁移列表
+     */
+    @NotNull
+    protected List<SchemaMigrator.SchemaMigration> getMigrations() {
+        String tombstones = getTableName("tombstones");
+        String items = getTableName("tombstone_items");
+        String exemptions = getTableName("player_exemptions");
+
+        return List.of(
+            new SchemaMigrator.SchemaMigration(1, "create base tables", connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    // 创建墓碑数据表
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            player_uuid TEXT NOT NULL,
+                            world_name TEXT NOT NULL,
+                            x INTEGER NOT NULL,
+                            y INTEGER NOT NULL,
+                            z INTEGER NOT NULL,
+                            death_time BIGINT NOT NULL,
+                            protection_expire BIGINT NOT NULL,
+                            despawn_time BIGINT NOT NULL,
+                            experience INTEGER NOT NULL,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                        )
+                    """, tombstones));
+
+                    // 创建物品数据表
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            tombstone_id INTEGER NOT NULL,
+                            slot_index INTEGER NOT NULL,
+                            item_data BLOB NOT NULL,
+                            FOREIGN KEY (tombstone_id) REFERENCES %s(id) ON DELETE CASCADE
+                        )
+                    """, items, tombstones));
+
+                    // 创建玩家豁免记录表
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            id INTEGER PRIMARY KEY AUTOINCREMENT,
+                            player_uuid TEXT NOT NULL,
+                            exemption_date TEXT NOT NULL,
+                            used_count INTEGER NOT NULL DEFAULT 0,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            UNIQUE(player_uuid, exemption_date)
+                        )
+                    """, exemptions));
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(2, "add tombstones.despawn_time", connection -> {
+                // 旧版本数据库缺少despawn_time字段，旧数据由回填任务补齐
+                if (!SchemaMigrator.columnExists(connection, tombstones, "despawn_time")) {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN despawn_time BIGINT NOT NULL DEFAULT 0", tombstones));
+                    }
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(3, "create query indexes", connection -> {
+                // 玩家墓碑列表、过期清理、物品加载
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(String.format("CREATE INDEX IF NOT EXISTS idx_tombstones_player_uuid ON %s(player_uuid)", tombstones));
+                    stmt.execute(String.format("CREATE INDEX IF NOT EXISTS idx_tombstones_despawn_time ON %s(despawn_time)", tombstones));
+                    stmt.execute(String.format("CREATE INDEX IF NOT EXISTS idx_tombstone_items_tombstone_id ON %s(tombstone_id)", items));
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(4, "create packed inventory table", connection -> {
+                // 整个背包打包为单行数据，见InventoryCodec
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            tombstone_id INTEGER PRIMARY KEY,
+                            slot_count INTEGER NOT NULL,
+                            inventory_data BLOB NOT NULL,
+                            FOREIGN KEY (tombstone_id) REFERENCES %s(id) ON DELETE CASCADE
+                        )
+                    """, getTableName("tombstone_inventories"), tombstones));
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(5, "add item header columns", connection -> {
+                // 物品摘要（类型、数量、数据版本），展示时无需解析完整NBT
+                String inventories = getTableName("tombstone_inventories");
+                try (Statement stmt = connection.createStatement()) {
+                    if (!SchemaMigrator.columnExists(connection, items, "material")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN material TEXT", items));
+                    }
+                    if (!SchemaMigrator.columnExists(connection, items, "amount")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN amount INTEGER NOT NULL DEFAULT 0", items));
+                    }
+                    if (!SchemaMigrator.columnExists(connection, items, "data_version")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN data_version INTEGER NOT NULL DEFAULT 0", items));
+                    }
+                    if (!SchemaMigrator.columnExists(connection, inventories, "item_headers")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN item_headers BLOB", inventories));
+                    }
+                }
+            })
+        );
+    }
+
+    /**
+     * 获取数据回填列表
+     * 统一的回填定义方法，回填任务必须可重复执行
+     *
+     * @return 回填列表
+     */
+    @NotNull
+    protected List<SchemaMigrator.SchemaBackfill> getBackfills() {
+        String tombstones = getTableName("tombstones");
+        String selectMissing = String.format("SELECT id FROM %s WHERE despawn_time = 0 ORDER BY id LIMIT ?", tombstones);
+        String updateDespawn = String.format("UPDATE %s SET despawn_time = death_time + ? WHERE id = ? AND despawn_time = 0", tombstones);
+
+        return List.of(
+            new SchemaMigrator.SchemaBackfill("tombstones.despawn_time", (connection, chunkSize) -> {
+                List<Long> ids = new ArrayList<>(chunkSize);
+                PreparedStatement selectStmt = prepareCached(connection, selectMissing);
+                selectStmt.setInt(1, chunkSize);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong(1));
+                    }
+                }
+
+                long defaultDespawnMillis = getDefaultDespawnMillis();
+                PreparedStatement updateStmt = prepareCached(connection, updateDespawn);
+                for (long id : ids) {
+                    updateStmt.setLong(1, defaultDespawnMillis);
+                    updateStmt.setLong(2, id);
+                    updateStmt.addBatch();
+                }
+                updateStmt.executeBatch();
+                return ids.size();
+            }),
+            new SchemaMigrator.SchemaBackfill("tombstone_items -> tombstone_inventories", (connection, chunkSize) ->
+                packedInventories ? convertItemRowsChunk(connection, chunkSize) : 0)
+        );
+    }
+
+    /**
+     * 将一批逐行存储的物品转换为打包格式
+     * 统一的存储格式转换方法，按墓碑为单位转换，已存在的打包数据会与旧行合并
+     *
+     * @param connection 数据库连接
+     * @param chunkSize 每批最多转换的物品行数
+     * @return 本批转换的物品行数
+     * @throws SQLException 数据库异常
+     */
+    private int convertItemRowsChunk(@NotNull Connection connection, int chunkSize) throws SQLException {
+        String items = getTableName("tombstone_items");
+        String selectRows = String.format("""
+            SELECT tombstone_id, slot_index, item_data, material, amount, data_version FROM %1$s
+            WHERE tombstone_id IN (SELECT tombstone_id FROM (SELECT DISTINCT tombstone_id FROM %1$s ORDER BY tombstone_id LIMIT ?) AS batch)
+            ORDER BY tombstone_id, slot_index
+        """, items);
+        String deleteRows = String.format("DELETE FROM %s WHERE tombstone_id = ?", items);
+
+        // 每个墓碑最多约41个物品，按墓碑数量估算本批范围
+        PreparedStatement selectStmt = prepareCached(connection, selectRows);
+        selectStmt.setInt(1, Math.max(1, chunkSize / 41));
+
+        Map<Long, TreeMap<Integer, byte[]>> inventories = new LinkedHashMap<>();
+        Map<Long, TreeMap<Integer, InventoryCodec.SlotHeader>> headers = new LinkedHashMap<>();
+        int rows = 0;
+        try (ResultSet rs = selectStmt.executeQuery()) {
+            while (rs.next()) {
+                long tombstoneId = rs.getLong("tombstone_id");
+                int slotIndex = rs.getInt("slot_index");
+                inventories.computeIfAbsent(tombstoneId, id -> new TreeMap<>())
+                    .put(slotIndex, rs.getBytes("item_data"));
+
+                InventoryCodec.SlotHeader header = readSlotHeader(rs);
+                TreeMap<Integer, InventoryCodec.SlotHeader> tombstoneHeaders = headers.computeIfAbsent(tombstoneId, id -> new TreeMap<>());
+                if (header != null) {
+                    tombstoneHeaders.put(slotIndex, header);
+                }
+                rows++;
+            }
+        }
+
+        PreparedStatement deleteStmt = prepareCached(connection, deleteRows);
+        for (Map.Entry<Long, TreeMap<Integer, byte[]>> entry : inventories.entrySet()) {
+            TreeMap<Integer, byte[]> slots = entry.getValue();
+            TreeMap<Integer, InventoryCodec.SlotHeader> slotHeaders = headers.get(entry.getKey());
+            PackedInventory existing = readPackedInventory(connection, entry.getKey(), true);
+            if (existing != null) {
+                for (Map.Entry<Integer, byte[]> slot : InventoryCodec.decodeAll(existing.data()).entrySet()) {
+                    if (slots.putIfAbsent(slot.getKey(), slot.getValue()) == null) {
+                        InventoryCodec.SlotHeader header = existing.headers().get(slot.getKey());
+                        if (header != null) {
+                            slotHeaders.put(slot.getKey(), header);
+                        }
+                    }
+                }
+            }
+
+            writePackedInventory(connection, entry.getKey(), slots, slotHeaders, existing != null);
+            deleteStmt.setLong(1, entry.getKey());
+            deleteStmt.addBatch();
+        }
+        deleteStmt.executeBatch();
+
+        return rows;
+    }
+
+    /**
+     * 执行数据回填
+     * 统一的回填方法，每个批次在独立事务中提交，批次之间释放连接供其他操作使用
+     * 应在异步线程中调用
+     */
+    public void runBackfills() {
+        int chunkSize = Math.max(1, plugin.getConfigManager().getInt("database.migration.backfill-chunk-size", 1000));
 
-            // 尝试添加despawn_time字段（如果不存在）
+        for (SchemaMigrator.SchemaBackfill backfill : getBackfills()) {
+            int total = 0;
             try {
-                stmt.execute(addDespawnTimeColumn);
+                while (true) {
+                    final int[] processed = new int[1];
+                    executeTransaction(connection -> processed[0] = backfill.step().applyChunk(connection, chunkSize));
+                    if (processed[0] <= 0) {
+                        break;
+                    }
+                    total += processed[0];
+                }
             } catch (SQLException e) {
-                // 字段可能已存在，忽略错误
+                plugin.getLogger().warning("数据回填失败 (" + backfill.description() + "): " + e.getMessage());
             }
 
-            plugin.getLogger().info("数据库表创建完成");
+            if (total > 0) {
+                plugin.getLogger().info("数据回填完成 (" + backfill.description() + "): " + total + " 行");
+            }
         }
     }
+
+    /**
+     * 获取默认消失时长
+     * 用于旧数据回填，旧数据无法得知当时的VIP时长，统一使用默认配置
+     *
+     * @return 消失时长（毫秒）
+     */
+    private long getDefaultDespawnMillis() {
+        return TimeUtil.hoursToMillis(plugin.getConfigManager().getInt("tombstone.despawn-time", 24));
+    }
     
     /**
      * 保存墓碑数据
@@ -177,71 +440,290 @@ public class DataManager extends AbstractDataManager {
     public long saveTombstone(@NotNull UUID playerId, @NotNull String worldName,
                              int x, int y, int z, long deathTime, long protectionExpire,
                              long despawnTime, int experience, @NotNull ItemStack[] items) throws SQLException {
-        final long[] tombstoneId = new long[1];
-        
+        return saveTombstones(List.of(new TombstoneWrite(playerId, worldName, x, y, z,
+            deathTime, protectionExpire, despawnTime, experience, items)))[0];
+    }
+
+    /**
+     * 批量保存墓碑数据
+     * 统一的批量保存方法，所有墓碑在同一个事务中提交
+     *
+     * @param writes 墓碑写入数据列表
+     * @return 与写入顺序一致的墓碑ID数组
+     * @throws SQLException 数据库异常
+     */
+    public long[] saveTombstones(@NotNull List<TombstoneWrite> writes) throws SQLException {
+        final long[] tombstoneIds = new long[writes.size()];
+
         executeTransaction(connection -> {
             // 插入墓碑基本信息
-            String insertTombstone = """
-                INSERT INTO tombstones (player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience)
+            String insertTombstone = String.format("""
+                INSERT INTO %s (player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience)
                 VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-            """;
-
-            try (PreparedStatement stmt = connection.prepareStatement(insertTombstone, Statement.RETURN_GENERATED_KEYS)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, worldName);
-                stmt.setInt(3, x);
-                stmt.setInt(4, y);
-                stmt.setInt(5, z);
-                stmt.setLong(6, deathTime);
-                stmt.setLong(7, protectionExpire);
-                stmt.setLong(8, despawnTime);
-                stmt.setInt(9, experience);
-                
+            """, getTableName("tombstones"));
+            String insertItem = String.format("""
+                INSERT INTO %s (tombstone_id, slot_index, item_data, material, amount, data_version)
+                VALUES (?, ?, ?, ?, ?, ?)
+            """, getTableName("tombstone_items"));
+
+            String insertInventory = String.format("""
+                INSERT INTO %s (tombstone_id, slot_count, inventory_data, item_headers)
+                VALUES (?, ?, ?, ?)
+            """, getTableName("tombstone_inventories"));
+
+            PreparedStatement stmt = prepareCached(connection, insertTombstone, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement itemStmt = prepareCached(connection, packedInventories ? insertInventory : insertItem);
+            for (int i = 0; i < writes.size(); i++) {
+                TombstoneWrite write = writes.get(i);
+                stmt.setString(1, write.playerId().toString());
+                stmt.setString(2, write.worldName());
+                stmt.setInt(3, write.x());
+                stmt.setInt(4, write.y());
+                stmt.setInt(5, write.z());
+                stmt.setLong(6, write.deathTime());
+                stmt.setLong(7, write.protectionExpire());
+                stmt.setLong(8, write.despawnTime());
+                stmt.setInt(9, write.experience());
+
                 stmt.executeUpdate();
-                
+
                 // 获取生成的墓碑ID
                 try (ResultSet rs = stmt.getGeneratedKeys()) {
                     if (rs.next()) {
-                        tombstoneId[0] = rs.getLong(1);
+                        tombstoneIds[i] = rs.getLong(1);
+                    }
+                }
+
+                // 保存物品数据
+                if (tombstoneIds[i] > 0) {
+                    if (packedInventories) {
+                        addInventoryToBatch(itemStmt, tombstoneIds[i], write.items());
+                    } else {
+                        addItemsToBatch(itemStmt, tombstoneIds[i], write.items());
                     }
                 }
             }
-            
-            // 保存物品数据
-            if (tombstoneId[0] > 0) {
-                saveItems(connection, tombstoneId[0], items);
-            }
+            itemStmt.executeBatch();
         });
-        
-        return tombstoneId[0];
+
+        return tombstoneIds;
     }
-    
+
     /**
-     * 保存物品数据
+     * 添加物品数据到批处理
      * 统一的物品保存方法
-     * 
-     * @param connection 数据库连接
+     *
+     * @param stmt 物品插入语句
      * @param tombstoneId 墓碑ID
      * @param items 物品数组
      * @throws SQLException 数据库异常
      */
-    private void saveItems(@NotNull Connection connection, long tombstoneId, @NotNull ItemStack[] items) throws SQLException {
-        String insertItem = "INSERT INTO tombstone_items (tombstone_id, slot_index, item_data) VALUES (?, ?, ?)";
-        
-        try (PreparedStatement stmt = connection.prepareStatement(insertItem)) {
-            for (int i = 0; i < items.length; i++) {
-                ItemStack item = items[i];
-                if (item != null && !item.getType().isAir()) {
-                    stmt.setLong(1, tombstoneId);
-                    stmt.setInt(2, i);
-                    stmt.setBytes(3, serializeItemStack(item));
-                    stmt.addBatch();
-                }
+    private void addItemsToBatch(@NotNull PreparedStatement stmt, long tombstoneId, @NotNull ItemStack[] items) throws SQLException {
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && !item.getType().isAir()) {
+                InventoryCodec.SlotHeader header = createSlotHeader(item);
+                stmt.setLong(1, tombstoneId);
+                stmt.setInt(2, i);
+                stmt.setBytes(3, serializeItemStack(item));
+                stmt.setString(4, header.material());
+                stmt.setInt(5, header.amount());
+                stmt.setInt(6, header.dataVersion());
+                stmt.addBatch();
             }
-            stmt.executeBatch();
         }
     }
-    
+
+    /**
+     * 添加打包背包数据到批处理
+     * 统一的打包保存方法，每个墓碑只写入一行
+     *
+     * @param stmt 打包数据插入语句
+     * @param tombstoneId 墓碑ID
+     * @param items 物品数组
+     * @throws SQLException 数据库异常
+     */
+    private void addInventoryToBatch(@NotNull PreparedStatement stmt, long tombstoneId, @NotNull ItemStack[] items) throws SQLException {
+        TreeMap<Integer, byte[]> slots = new TreeMap<>();
+        TreeMap<Integer, InventoryCodec.SlotHeader> headers = new TreeMap<>();
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && !item.getType().isAir()) {
+                slots.put(i, serializeItemStack(item));
+                headers.put(i, createSlotHeader(item));
+            }
+        }
+
+        if (!slots.isEmpty()) {
+            stmt.setLong(1, tombstoneId);
+            stmt.setInt(2, slots.size());
+            stmt.setBytes(3, InventoryCodec.encode(slots));
+            stmt.setBytes(4, InventoryCodec.encodeHeaders(headers));
+            stmt.addBatch();
+        }
+    }
+
+    /**
+     * 读取墓碑的打包背包数据
+     *
+     * @param connection 数据库连接
+     * @param tombstoneId 墓碑ID
+     * @param forUpdate 是否在事务中锁定该行（读取后需要改写时使用）
+     * @return 打包数据，不存在时返回null
+     * @throws SQLException 数据库异常
+     */
+    @Nullable
+    private PackedInventory readPackedInventory(@NotNull Connection connection, long tombstoneId,
+                                                boolean forUpdate) throws SQLException {
+        String query = String.format("SELECT inventory_data, item_headers FROM %s WHERE tombstone_id = ?",
+            getTableName("tombstone_inventories"));
+        if (forUpdate) {
+            query += getLockingReadClause();
+        }
+
+        PreparedStatement stmt = prepareCached(connection, query);
+        stmt.setLong(1, tombstoneId);
+        try (ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+            return new PackedInventory(rs.getBytes("inventory_data"), InventoryCodec.decodeHeaders(rs.getBytes("item_headers")));
+        }
+    }
+
+    /**
+     * 获取行锁子句
+     * SQLite事务本身是串行的，不需要行锁；支持并发事务的数据库应重写此方法
+     *
+     * @return 追加在SELECT语句后的锁定子句
+     */
+    @NotNull
+    protected String getLockingReadClause() {
+        return "";
+    }
+
+    /**
+     * 写入墓碑的打包背包数据
+     * 槽位为空时删除整行
+     *
+     * @param connection 数据库连接
+     * @param tombstoneId 墓碑ID
+     * @param slots 槽位数据
+     * @param headers 物品摘要
+     * @param exists 数据行是否已存在
+     * @throws SQLException 数据库异常
+     */
+    private void writePackedInventory(@NotNull Connection connection, long tombstoneId, @NotNull SortedMap<Integer, byte[]> slots,
+                                      @NotNull SortedMap<Integer, InventoryCodec.SlotHeader> headers, boolean exists) throws SQLException {
+        writePackedInventory(connection, tombstoneId, slots.isEmpty() ? null : InventoryCodec.encode(slots),
+            headers, slots.size(), exists);
+    }
+
+    /**
+     * 写入墓碑的打包背包数据
+     * 数据为null时删除整行
+     *
+     * @param connection 数据库连接
+     * @param tombstoneId 墓碑ID
+     * @param packed 打包数据
+     * @param headers 物品摘要
+     * @param slotCount 槽位数量
+     * @param exists 数据行是否已存在
+     * @throws SQLException 数据库异常
+     */
+    private void writePackedInventory(@NotNull Connection connection, long tombstoneId, @Nullable byte[] packed,
+                                      @NotNull SortedMap<Integer, InventoryCodec.SlotHeader> headers,
+                                      int slotCount, boolean exists) throws SQLException {
+        String table = getTableName("tombstone_inventories");
+
+        if (packed == null) {
+            PreparedStatement stmt = prepareCached(connection, String.format("DELETE FROM %s WHERE tombstone_id = ?", table));
+            stmt.setLong(1, tombstoneId);
+            stmt.executeUpdate();
+            return;
+        }
+
+        String sql = exists
+            ? String.format("UPDATE %s SET slot_count = ?, inventory_data = ?, item_headers = ? WHERE tombstone_id = ?", table)
+            : String.format("INSERT INTO %s (slot_count, inventory_data, item_headers, tombstone_id) VALUES (?, ?, ?, ?)", table);
+        PreparedStatement stmt = prepareCached(connection, sql);
+        stmt.setInt(1, slotCount);
+        stmt.setBytes(2, packed);
+        stmt.setBytes(3, InventoryCodec.encodeHeaders(headers));
+        stmt.setLong(4, tombstoneId);
+        stmt.executeUpdate();
+    }
+
+    /**
+     * 打包背包数据记录类
+     */
+    private record PackedInventory(
+        byte[] data,
+        SortedMap<Integer, InventoryCodec.SlotHeader> headers
+    ) {}
+
+    /**
+     * 创建物品摘要
+     * 统一的摘要创建方法，记录当前服务器的数据版本
+     *
+     * @param item 物品
+     * @return 物品摘要
+     */
+    @NotNull
+    private InventoryCodec.SlotHeader createSlotHeader(@NotNull ItemStack item) {
+        return new InventoryCodec.SlotHeader(item.getType().name(), item.getAmount(), getCurrentDataVersion());
+    }
+
+    /**
+     * 从结果集读取物品摘要
+     * 旧数据没有摘要时返回null
+     *
+     * @param rs 结果集（需包含material、amount、data_version字段）
+     * @return 物品摘要
+     * @throws SQLException 数据库异常
+     */
+    @Nullable
+    private InventoryCodec.SlotHeader readSlotHeader(@NotNull ResultSet rs) throws SQLException {
+        String material = rs.getString("material");
+        if (material == null) {
+            return null;
+        }
+        return new InventoryCodec.SlotHeader(material, rs.getInt("amount"), rs.getInt("data_version"));
+    }
+
+    /**
+     * 获取当前服务器的物品数据版本
+     *
+     * @return 数据版本
+     */
+    private int getCurrentDataVersion() {
+        if (currentDataVersion < 0) {
+            try {
+                currentDataVersion = Bukkit.getUnsafe().getDataVersion();
+            } catch (RuntimeException e) {
+                currentDataVersion = 0;
+            }
+        }
+        return currentDataVersion;
+    }
+
+    /**
+     * 墓碑写入数据记录类
+     * 异步写入队列与批量保存使用的数据传输对象
+     */
+    public record TombstoneWrite(
+        UUID playerId,
+        String worldName,
+        int x,
+        int y,
+        int z,
+        long deathTime,
+        long protectionExpire,
+        long despawnTime,
+        int experience,
+        ItemStack[] items
+    ) {}
+
     /**
      * 加载墓碑物品
      * 统一的物品加载方法
@@ -253,10 +735,25 @@ public class DataManager extends AbstractDataManager {
      */
     @NotNull
     public List<TombstoneItemData> loadTombstoneItems(long tombstoneId) throws SQLException {
-        List<TombstoneItemData> items = new ArrayList<>();
-        String query = "SELECT slot_index, item_data FROM tombstone_items WHERE tombstone_id = ? ORDER BY slot_index";
+        String query = String.format("""
+            SELECT slot_index, item_data, material, amount, data_version FROM %s
+            WHERE tombstone_id = ? ORDER BY slot_index
+        """, getTableName("tombstone_items"));
+
+        return executeOperation(connection -> {
+            List<TombstoneItemData> items = new ArrayList<>();
+
+            // 打包格式的物品
+            PackedInventory packed = readPackedInventory(connection, tombstoneId, false);
+            if (packed != null) {
+                for (Map.Entry<Integer, byte[]> entry : InventoryCodec.decodeAll(packed.data()).entrySet()) {
+                    items.add(new TombstoneItemData(this, tombstoneId, entry.getKey(), entry.getValue(),
+                        packed.headers().get(entry.getKey())));
+                }
+            }
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            // 逐行存储的物品（旧数据或rows格式）
+            PreparedStatement stmt = prepareCached(connection, query);
             stmt.setLong(1, tombstoneId);
 
             try (ResultSet rs = stmt.executeQuery()) {
@@ -265,24 +762,212 @@ public class DataManager extends AbstractDataManager {
                     byte[] itemData = rs.getBytes("item_data");
 
                     if (itemData != null) {
-                        ItemStack item = deserializeItemStack(itemData);
-                        items.add(new TombstoneItemData(slotIndex, item));
+                        items.add(new TombstoneItemData(this, tombstoneId, slotIndex, itemData, readSlotHeader(rs)));
                     }
                 }
             }
+
+            if (packed != null) {
+                items.sort(Comparator.comparingInt(TombstoneItemData::originalSlotIndex));
+            }
+            return items;
+        });
+    }
+
+    /**
+     * 物品首次反序列化后的回调
+     * 数据版本落后于当前服务器时，说明物品经过了DataFixer升级，在后台写回一次升级后的数据
+     *
+     * @param tombstoneId 墓碑ID
+     * @param slotIndex 物品槽位索引
+     * @param header 物品摘要
+     * @param item 反序列化后的物品
+     */
+    private void onItemMaterialized(long tombstoneId, int slotIndex, @Nullable InventoryCodec.SlotHeader header,
+                                    @NotNull ItemStack item) {
+        if (header != null && header.dataVersion() >= getCurrentDataVersion()) {
+            return;
         }
+        if (!plugin.isEnabled()) {
+            return;
+        }
+
+        ItemStack snapshot = item.clone();
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                rewriteTombstoneItem(tombstoneId, slotIndex, snapshot);
+            } catch (SQLException e) {
+                plugin.getLogger().warning("写回升级后的物品数据失败 ID: " + tombstoneId + " - " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 重写墓碑中的单个物品
+     * 统一的物品重写方法，物品已被取走时不做任何修改
+     *
+     * @param tombstoneId 墓碑ID
+     * @param slotIndex 物品槽位索引
+     * @param item 物品
+     * @throws SQLException 数据库异常
+     */
+    public void rewriteTombstoneItem(long tombstoneId, int slotIndex, @NotNull ItemStack item) throws SQLException {
+        byte[] itemData = serializeItemStack(item);
+        InventoryCodec.SlotHeader header = createSlotHeader(item);
+        String updateItem = String.format("""
+            UPDATE %s SET item_data = ?, material = ?, amount = ?, data_version = ?
+            WHERE tombstone_id = ? AND slot_index = ?
+        """, getTableName("tombstone_items"));
+
+        executeTransaction(connection -> {
+            PackedInventory packed = readPackedInventory(connection, tombstoneId, true);
+            if (packed != null && InventoryCodec.readSlot(packed.data(), slotIndex) != null) {
+                TreeMap<Integer, byte[]> slots = new TreeMap<>(InventoryCodec.decodeAll(packed.data()));
+                slots.put(slotIndex, itemData);
+                packed.headers().put(slotIndex, header);
+                writePackedInventory(connection, tombstoneId, slots, packed.headers(), true);
+                return;
+            }
 
-        return items;
+            PreparedStatement stmt = prepareCached(connection, updateItem);
+            stmt.setBytes(1, itemData);
+            stmt.setString(2, header.material());
+            stmt.setInt(3, header.amount());
+            stmt.setInt(4, header.dataVersion());
+            stmt.setLong(5, tombstoneId);
+            stmt.setInt(6, slotIndex);
+            stmt.executeUpdate();
+        });
     }
 
     /**
-     * 墓碑物品数据记录类
+     * 墓碑物品数据类
      * 包含物品和其在PlayerInventory中的原始索引
+     * 从数据库加载时只保存原始数据和摘要，首次调用item()时才反序列化
      */
-    public record TombstoneItemData(
-        int originalSlotIndex,
-        ItemStack item
-    ) {}
+    public static final class TombstoneItemData {
+
+        private final DataManager dataManager;
+        private final long tombstoneId;
+        private final int originalSlotIndex;
+        private final InventoryCodec.SlotHeader header;
+        private byte[] rawData;
+        private ItemStack item;
+
+        /**
+         * 构造函数
+         *
+         * @param originalSlotIndex 物品在PlayerInventory中的原始索引
+         * @param item 物品
+         */
+        public TombstoneItemData(int originalSlotIndex, @NotNull ItemStack item) {
+            this.dataManager = null;
+            this.tombstoneId = 0;
+            this.originalSlotIndex = originalSlotIndex;
+            this.header = null;
+            this.item = item;
+        }
+
+        /**
+         * 延迟反序列化的构造函数
+         *
+         * @param dataManager 数据管理器
+         * @param tombstoneId 墓碑ID
+         * @param originalSlotIndex 物品在PlayerInventory中的原始索引
+         * @param rawData 物品序列化数据
+         * @param header 物品摘要，旧数据为null
+         */
+        private TombstoneItemData(@NotNull DataManager dataManager, long tombstoneId, int originalSlotIndex,
+                                  @NotNull byte[] rawData, @Nullable InventoryCodec.SlotHeader header) {
+            this.dataManager = dataManager;
+            this.tombstoneId = tombstoneId;
+            this.originalSlotIndex = originalSlotIndex;
+            this.header = header;
+            this.rawData = rawData;
+        }
+
+        /**
+         * 获取物品在PlayerInventory中的原始索引
+         *
+         * @return 原始索引
+         */
+        public int originalSlotIndex() {
+            return originalSlotIndex;
+        }
+
+        /**
+         * 获取物品
+         * 首次调用时反序列化，数据损坏时返回null
+         *
+         * @return 物品
+         */
+        @Nullable
+        public ItemStack item() {
+            if (item == null && rawData != null) {
+                byte[] data = rawData;
+                rawData = null;
+                try {
+                    item = dataManager.deserializeItemStack(data);
+                    dataManager.onItemMaterialized(tombstoneId, originalSlotIndex, header, item);
+                } catch (RuntimeException e) {
+                    dataManager.plugin.getLogger().warning("反序列化物品失败 ID: " + tombstoneId
+                        + " 槽位: " + originalSlotIndex + " - " + e.getMessage());
+                }
+            }
+            return item;
+        }
+
+        /**
+         * 获取物品类型
+         * 有摘要时无需反序列化物品
+         *
+         * @return 物品类型，未知时返回null
+         */
+        @Nullable
+        public Material material() {
+            if (item == null && header != null) {
+                Material material = Material.matchMaterial(header.material());
+                if (material != null) {
+                    return material;
+                }
+            }
+            ItemStack stack = item();
+            return stack != null ? stack.getType() : null;
+        }
+
+        /**
+         * 获取物品数量
+         * 有摘要时无需反序列化物品
+         *
+         * @return 物品数量
+         */
+        public int amount() {
+            if (item == null && header != null) {
+                return header.amount();
+            }
+            ItemStack stack = item();
+            return stack != null ? stack.getAmount() : 0;
+        }
+
+        /**
+         * 检查物品是否有摘要
+         * 有摘要时material()和amount()不会反序列化物品
+         *
+         * @return 是否有摘要
+         */
+        public boolean hasHeader() {
+            return header != null;
+        }
+
+        /**
+         * 检查物品是否已反序列化
+         *
+         * @return 是否已反序列化
+         */
+        public boolean isMaterialized() {
+            return item != null;
+        }
+    }
     
     /**
      * 移除墓碑中的单个物品
@@ -293,13 +978,27 @@ public class DataManager extends AbstractDataManager {
      * @throws SQLException 数据库异常
      */
     public void removeTombstoneItem(long tombstoneId, int slotIndex) throws SQLException {
-        String deleteItem = "DELETE FROM tombstone_items WHERE tombstone_id = ? AND slot_index = ?";
+        String deleteItem = String.format("DELETE FROM %s WHERE tombstone_id = ? AND slot_index = ?",
+            getTableName("tombstone_items"));
 
-        try (PreparedStatement stmt = connection.prepareStatement(deleteItem)) {
+        executeTransaction(connection -> {
+            // 打包格式只重写该槽位之外的压缩数据，不解压其他物品
+            PackedInventory packed = readPackedInventory(connection, tombstoneId, true);
+            if (packed != null) {
+                byte[] updated = InventoryCodec.removeSlot(packed.data(), slotIndex);
+                if (updated != packed.data()) {
+                    packed.headers().remove(slotIndex);
+                    writePackedInventory(connection, tombstoneId, updated, packed.headers(),
+                        updated == null ? 0 : InventoryCodec.getSlotCount(updated), true);
+                    return;
+                }
+            }
+
+            PreparedStatement stmt = prepareCached(connection, deleteItem);
             stmt.setLong(1, tombstoneId);
             stmt.setInt(2, slotIndex);
             stmt.executeUpdate();
-        }
+        });
     }
 
     /**
@@ -310,12 +1009,13 @@ public class DataManager extends AbstractDataManager {
      * @throws SQLException 数据库异常
      */
     public void removeTombstoneExperience(long tombstoneId) throws SQLException {
-        String updateExperience = "UPDATE tombstones SET experience = 0 WHERE id = ?";
+        String updateExperience = String.format("UPDATE %s SET experience = 0 WHERE id = ?", getTableName("tombstones"));
 
-        try (PreparedStatement stmt = connection.prepareStatement(updateExperience)) {
+        executeOperation(connection -> {
+            PreparedStatement stmt = prepareCached(connection, updateExperience);
             stmt.setLong(1, tombstoneId);
-            stmt.executeUpdate();
-        }
+            return stmt.executeUpdate();
+        });
     }
 
     /**
@@ -327,29 +1027,40 @@ public class DataManager extends AbstractDataManager {
      * @throws SQLException 数据库异常
      */
     public boolean isTombstoneEmpty(long tombstoneId) throws SQLException {
-        // 检查是否有物品
-        String checkItems = "SELECT COUNT(*) FROM tombstone_items WHERE tombstone_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(checkItems)) {
-            stmt.setLong(1, tombstoneId);
-            try (ResultSet rs = stmt.executeQuery()) {
+        String checkItems = String.format("SELECT COUNT(*) FROM %s WHERE tombstone_id = ?", getTableName("tombstone_items"));
+        String checkExperience = String.format("SELECT experience FROM %s WHERE id = ?", getTableName("tombstones"));
+        String checkInventory = String.format("SELECT COUNT(*) FROM %s WHERE tombstone_id = ?", getTableName("tombstone_inventories"));
+
+        return executeOperation(connection -> {
+            // 检查是否有打包物品（空背包会删除整行）
+            PreparedStatement inventoryStmt = prepareCached(connection, checkInventory);
+            inventoryStmt.setLong(1, tombstoneId);
+            try (ResultSet rs = inventoryStmt.executeQuery()) {
                 if (rs.next() && rs.getInt(1) > 0) {
                     return false; // 有物品
                 }
             }
-        }
 
-        // 检查是否有经验
-        String checkExperience = "SELECT experience FROM tombstones WHERE id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(checkExperience)) {
-            stmt.setLong(1, tombstoneId);
-            try (ResultSet rs = stmt.executeQuery()) {
+            // 检查是否有物品
+            PreparedStatement itemStmt = prepareCached(connection, checkItems);
+            itemStmt.setLong(1, tombstoneId);
+            try (ResultSet rs = itemStmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return false; // 有物品
+                }
+            }
+
+            // 检查是否有经验
+            PreparedStatement experienceStmt = prepareCached(connection, checkExperience);
+            experienceStmt.setLong(1, tombstoneId);
+            try (ResultSet rs = experienceStmt.executeQuery()) {
                 if (rs.next() && rs.getInt("experience") > 0) {
                     return false; // 有经验
                 }
             }
-        }
 
-        return true; // 墓碑为空
+            return true; // 墓碑为空
+        });
     }
 
     /**
@@ -360,76 +1071,96 @@ public class DataManager extends AbstractDataManager {
      * @throws SQLException 数据库异常
      */
     public void deleteTombstone(long tombstoneId) throws SQLException {
+        String deleteItems = String.format("DELETE FROM %s WHERE tombstone_id = ?", getTableName("tombstone_items"));
+        String deleteInventory = String.format("DELETE FROM %s WHERE tombstone_id = ?", getTableName("tombstone_inventories"));
+        String deleteTombstone = String.format("DELETE FROM %s WHERE id = ?", getTableName("tombstones"));
+
         executeTransaction(connection -> {
             // 删除物品数据（外键约束会自动删除）
-            String deleteItems = "DELETE FROM tombstone_items WHERE tombstone_id = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(deleteItems)) {
-                stmt.setLong(1, tombstoneId);
-                stmt.executeUpdate();
-            }
+            PreparedStatement itemStmt = prepareCached(connection, deleteItems);
+            itemStmt.setLong(1, tombstoneId);
+            itemStmt.executeUpdate();
+
+            PreparedStatement inventoryStmt = prepareCached(connection, deleteInventory);
+            inventoryStmt.setLong(1, tombstoneId);
+            inventoryStmt.executeUpdate();
 
             // 删除墓碑数据
-            String deleteTombstone = "DELETE FROM tombstones WHERE id = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(deleteTombstone)) {
-                stmt.setLong(1, tombstoneId);
-                stmt.executeUpdate();
-            }
+            PreparedStatement tombstoneStmt = prepareCached(connection, deleteTombstone);
+            tombstoneStmt.setLong(1, tombstoneId);
+            tombstoneStmt.executeUpdate();
         });
     }
 
     /**
      * 清理过期墓碑
-     * 统一的过期墓碑清理方法
+     * 统一的过期墓碑清理方法，按批次集合删除，每批一个事务，批次之间释放连接
      *
      * @param currentTime 当前时间戳
-     * @return 清理的墓碑数量
+     * @return 已删除的墓碑ID列表
      * @throws SQLException 数据库异常
      */
-    public int cleanupExpiredTombstones(long currentTime) throws SQLException {
-        String query = """
-            SELECT id, player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
-            FROM tombstones
-            WHERE despawn_time < ?
-        """;
-
-        List<TombstoneData> expiredTombstones = new ArrayList<>();
+    @NotNull
+    public List<Long> cleanupExpiredTombstones(long currentTime) throws SQLException {
+        // 使用当前时间检查despawn_time字段，尚未回填的旧数据(0)不参与清理
+        String selectExpired = String.format("""
+            SELECT id FROM %s
+            WHERE despawn_time > 0 AND despawn_time < ?
+            ORDER BY despawn_time LIMIT ?
+        """, getTableName("tombstones"));
+        int batchSize = Math.max(1, Math.min(MAX_IN_CLAUSE_SIZE,
+            plugin.getConfigManager().getInt("tombstone.cleanup-batch-size", 500)));
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            // 使用当前时间检查despawn_time字段
-            stmt.setLong(1, currentTime);
+        List<Long> deletedIds = new ArrayList<>();
+        while (true) {
+            List<Long> batch = new ArrayList<>(batchSize);
+            executeTransaction(connection -> {
+                PreparedStatement stmt = prepareCached(connection, selectExpired);
+                stmt.setLong(1, currentTime);
+                stmt.setInt(2, batchSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        batch.add(rs.getLong(1));
+                    }
+                }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    expiredTombstones.add(new TombstoneData(
-                        rs.getLong("id"),
-                        UUID.fromString(rs.getString("player_uuid")),
-                        rs.getString("world_name"),
-                        rs.getInt("x"),
-                        rs.getInt("y"),
-                        rs.getInt("z"),
-                        rs.getLong("death_time"),
-                        rs.getLong("protection_expire"),
-                        rs.getLong("despawn_time"),
-                        rs.getInt("experience")
-                    ));
+                if (!batch.isEmpty()) {
+                    deleteTombstones(connection, batch);
                 }
+            });
+
+            deletedIds.addAll(batch);
+            if (batch.size() < batchSize) {
+                return deletedIds;
             }
         }
+    }
 
-        // 删除过期墓碑
-        int deletedCount = 0;
-        for (TombstoneData tombstone : expiredTombstones) {
-            try {
-                deleteTombstone(tombstone.id());
-                deletedCount++;
-            } catch (SQLException e) {
-                plugin.getLogger().warning("删除过期墓碑失败 ID: " + tombstone.id() + " - " + e.getMessage());
+    /**
+     * 批量删除墓碑数据
+     * 统一的集合删除方法，需在事务中调用
+     *
+     * @param connection 数据库连接
+     * @param tombstoneIds 墓碑ID列表（不超过MAX_IN_CLAUSE_SIZE个）
+     * @throws SQLException 数据库异常
+     */
+    private void deleteTombstones(@NotNull Connection connection, @NotNull List<Long> tombstoneIds) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(tombstoneIds.size(), "?"));
+        String[] statements = {
+            String.format("DELETE FROM %s WHERE tombstone_id IN (%s)", getTableName("tombstone_items"), placeholders),
+            String.format("DELETE FROM %s WHERE tombstone_id IN (%s)", getTableName("tombstone_inventories"), placeholders),
+            String.format("DELETE FROM %s WHERE id IN (%s)", getTableName("tombstones"), placeholders)
+        };
+
+        for (String sql : statements) {
+            PreparedStatement stmt = prepareCached(connection, sql);
+            for (int i = 0; i < tombstoneIds.size(); i++) {
+                stmt.setLong(i + 1, tombstoneIds.get(i));
             }
+            stmt.executeUpdate();
         }
-
-        return deletedCount;
     }
-    
+
     /**
      * 获取玩家的墓碑列表
      * 统一的墓碑查询方法
@@ -440,35 +1171,25 @@ public class DataManager extends AbstractDataManager {
      */
     @NotNull
     public List<TombstoneData> getPlayerTombstones(@NotNull UUID playerId) throws SQLException {
-        List<TombstoneData> tombstones = new ArrayList<>();
-        String query = """
-            SELECT id, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
-            FROM tombstones WHERE player_uuid = ? ORDER BY death_time DESC
-        """;
+        String query = String.format("""
+            SELECT id, player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
+            FROM %s WHERE player_uuid = ? ORDER BY death_time DESC
+        """, getTableName("tombstones"));
         
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        return executeOperation(connection -> {
+            List<TombstoneData> tombstones = new ArrayList<>();
+
+            PreparedStatement stmt = prepareCached(connection, query);
             stmt.setString(1, playerId.toString());
-            
+
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    TombstoneData data = new TombstoneData(
-                        rs.getLong("id"),
-                        playerId,
-                        rs.getString("world_name"),
-                        rs.getInt("x"),
-                        rs.getInt("y"),
-                        rs.getInt("z"),
-                        rs.getLong("death_time"),
-                        rs.getLong("protection_expire"),
-                        rs.getLong("despawn_time"),
-                        rs.getInt("experience")
-                    );
-                    tombstones.add(data);
+                    tombstones.add(readTombstoneData(rs));
                 }
             }
-        }
-        
-        return tombstones;
+
+            return tombstones;
+        });
     }
     
     /**
@@ -480,33 +1201,130 @@ public class DataManager extends AbstractDataManager {
      */
     @NotNull
     public List<TombstoneData> getAllTombstones() throws SQLException {
-        List<TombstoneData> tombstones = new ArrayList<>();
-        String query = """
+        String query = String.format("""
             SELECT id, player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
-            FROM tombstones ORDER BY death_time DESC
-        """;
+            FROM %s ORDER BY death_time DESC
+        """, getTableName("tombstones"));
 
-        try (PreparedStatement stmt = connection.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
+        return executeOperation(connection -> {
+            List<TombstoneData> tombstones = new ArrayList<>();
 
-            while (rs.next()) {
-                TombstoneData data = new TombstoneData(
-                    rs.getLong("id"),
-                    UUID.fromString(rs.getString("player_uuid")),
-                    rs.getString("world_name"),
-                    rs.getInt("x"),
-                    rs.getInt("y"),
-                    rs.getInt("z"),
-                    rs.getLong("death_time"),
-                    rs.getLong("protection_expire"),
-                    rs.getLong("despawn_time"),
-                    rs.getInt("experience")
-                );
-                tombstones.add(data);
+            PreparedStatement stmt = prepareCached(connection, query);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tombstones.add(readTombstoneData(rs));
+                }
             }
+
+            return tombstones;
+        });
+    }
+
+    /**
+     * 从结果集读取墓碑数据
+     * 统一的墓碑数据映射方法
+     *
+     * @param rs 结果集（需包含墓碑表全部业务字段）
+     * @return 墓碑数据
+     * @throws SQLException 数据库异常
+     */
+    @NotNull
+    protected TombstoneData readTombstoneData(@NotNull ResultSet rs) throws SQLException {
+        long deathTime = rs.getLong("death_time");
+        long despawnTime = rs.getLong("despawn_time");
+        if (despawnTime == 0) {
+            // 尚未回填的旧数据按默认消失时长计算
+            despawnTime = deathTime + getDefaultDespawnMillis();
         }
 
-        return tombstones;
+        return new TombstoneData(
+            rs.getLong("id"),
+            UUID.fromString(rs.getString("player_uuid")),
+            rs.getString("world_name"),
+            rs.getInt("x"),
+            rs.getInt("y"),
+            rs.getInt("z"),
+            deathTime,
+            rs.getLong("protection_expire"),
+            despawnTime,
+            rs.getInt("experience")
+        );
+    }
+
+    /**
+     * 获取玩家某日的豁免使用次数
+     * 统一的豁免记录查询方法
+     *
+     * @param playerId 玩家UUID
+     * @param date 日期字符串 (yyyy-MM-dd)
+     * @return 使用次数
+     * @throws SQLException 数据库异常
+     */
+    public int getExemptionUsage(@NotNull UUID playerId, @NotNull String date) throws SQLException {
+        String query = String.format("""
+            SELECT used_count FROM %s
+            WHERE player_uuid = ? AND exemption_date = ?
+        """, getTableName("player_exemptions"));
+
+        return executeOperation(connection -> {
+            PreparedStatement stmt = prepareCached(connection, query);
+            stmt.setString(1, playerId.toString());
+            stmt.setString(2, date);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("used_count");
+                }
+            }
+
+            return 0; // 当日未使用过
+        });
+    }
+
+    /**
+     * 增加玩家某日的豁免使用次数
+     * 统一的豁免记录更新方法
+     *
+     * @param playerId 玩家UUID
+     * @param date 日期字符串 (yyyy-MM-dd)
+     * @throws SQLException 数据库异常
+     */
+    public void incrementExemptionUsage(@NotNull UUID playerId, @NotNull String date) throws SQLException {
+        // SQLite使用INSERT OR REPLACE语法
+        String upsertQuery = String.format("""
+            INSERT OR REPLACE INTO %1$s (player_uuid, exemption_date, used_count)
+            VALUES (?, ?, COALESCE((SELECT used_count FROM %1$s WHERE player_uuid = ? AND exemption_date = ?), 0) + 1)
+        """, getTableName("player_exemptions"));
+
+        executeOperation(connection -> {
+            PreparedStatement stmt = prepareCached(connection, upsertQuery);
+            stmt.setString(1, playerId.toString());
+            stmt.setString(2, date);
+            stmt.setString(3, playerId.toString());
+            stmt.setString(4, date);
+            return stmt.executeUpdate();
+        });
+    }
+
+    /**
+     * 删除指定日期之前的豁免记录
+     * 统一的豁免记录清理方法
+     *
+     * @param cutoffDate 截止日期字符串 (yyyy-MM-dd)
+     * @return 删除的记录数量
+     * @throws SQLException 数据库异常
+     */
+    public int deleteExemptionsBefore(@NotNull String cutoffDate) throws SQLException {
+        String deleteQuery = String.format("""
+            DELETE FROM %s
+            WHERE exemption_date < ?
+        """, getTableName("player_exemptions"));
+
+        return executeOperation(connection -> {
+            PreparedStatement stmt = prepareCached(connection, deleteQuery);
+            stmt.setString(1, cutoffDate);
+            return stmt.executeUpdate();
+        });
     }
 
     /**
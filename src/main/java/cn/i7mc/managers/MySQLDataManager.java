@@ -1,50 +1,54 @@
 package cn.i7mc.managers;
 
 import cn.i7mc.PlayerDeadManager;
-import org.bukkit.inventory.ItemStack;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * MySQL数据管理器 - 实现MySQL数据库操作
+ * MySQL数据管理器 - 实现MySQL/MariaDB数据库操作
  * 继承DataManager，遵循统一方法原则
+ * 使用HikariCP连接池，业务SQL由DataManager统一提供，本类只负责连接池、迁移语句和表前缀
  *
  * @author saga
  * @version 1.0.0
  */
 public class MySQLDataManager extends DataManager {
-    
-    private final PlayerDeadManager plugin;
+
     private final String host;
     private final int port;
     private final String database;
     private final String username;
     private final String password;
     private final boolean useSSL;
-    private String tablePrefix = "pdm_";
-    
+    private final int poolSize;
+    private final long connectionTimeoutMillis;
+    private final String tablePrefix;
+    private HikariDataSource dataSource;
+
     /**
      * 构造函数
      *
      * @param plugin 插件实例
+     * @param configManager 配置管理器
      */
-    public MySQLDataManager(@NotNull PlayerDeadManager plugin) {
+    public MySQLDataManager(@NotNull PlayerDeadManager plugin, @NotNull ConfigManager configManager) {
         super(plugin);
-        this.plugin = plugin;
-        this.host = plugin.getConfig().getString("database.mysql.host", "localhost");
-        this.port = plugin.getConfig().getInt("database.mysql.port", 3306);
-        this.database = plugin.getConfig().getString("database.mysql.database", "minecraft");
-        this.username = plugin.getConfig().getString("database.mysql.username", "root");
-        this.password = plugin.getConfig().getString("database.mysql.password", "password");
-        this.useSSL = plugin.getConfig().getBoolean("database.mysql.use-ssl", false);
+        this.host = configManager.getString("database.mysql.host", "localhost");
+        this.port = configManager.getInt("database.mysql.port", 3306);
+        this.database = configManager.getString("database.mysql.database", "minecraft");
+        this.username = configManager.getString("database.mysql.username", "root");
+        this.password = configManager.getString("database.mysql.password", "password");
+        this.useSSL = configManager.getBoolean("database.mysql.use-ssl", false);
+        this.poolSize = Math.max(1, configManager.getInt("database.pool-size", 5));
+        this.connectionTimeoutMillis = Math.max(1, configManager.getLong("database.timeout", 30)) * 1000L;
 
         // 设置表前缀
-        String prefix = plugin.getConfig().getString("database.mysql.table-prefix", "pdm_");
-        this.tablePrefix = prefix;
+        this.tablePrefix = configManager.getString("database.mysql.table-prefix", "pdm_");
     }
 
     /**
@@ -54,10 +58,12 @@ public class MySQLDataManager extends DataManager {
      * @param tableName 基础表名
      * @return 带前缀的表名
      */
-    private String getTableName(String tableName) {
+    @NotNull
+    @Override
+    protected String getTableName(@NotNull String tableName) {
         return tablePrefix + tableName;
     }
-    
+
     /**
      * 初始化数据库连接
      * 统一的数据库初始化方法
@@ -65,415 +71,229 @@ public class MySQLDataManager extends DataManager {
     @Override
     public void initializeDatabase() throws SQLException {
         try {
-            // 构建MySQL连接URL
-            String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=%s&allowPublicKeyRetrieval=true&serverTimezone=UTC",
-                    host, port, database, useSSL);
-            
-            // 创建MySQL连接
-            connection = DriverManager.getConnection(url, username, password);
-            
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("PlayerDeadManager-MySQL");
+            config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s", host, port, database));
+            config.setUsername(username);
+            config.setPassword(password);
+
+            // 有界连接池，连接由HikariCP在借出时校验，无需每次事务调用isValid
+            config.setMaximumPoolSize(poolSize);
+            config.setMinimumIdle(Math.min(2, poolSize));
+            config.setConnectionTimeout(connectionTimeoutMillis);
+
+            config.addDataSourceProperty("useSSL", String.valueOf(useSSL));
+            config.addDataSourceProperty("allowPublicKeyRetrieval", "true");
+            config.addDataSourceProperty("serverTimezone", "UTC");
+            config.addDataSourceProperty("characterEncoding", "utf8");
+
+            // 服务端预编译语句缓存与批量语句重写
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("useServerPrepStmts", "true");
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+            config.addDataSourceProperty("useLocalSessionState", "true");
+            config.addDataSourceProperty("cacheResultSetMetadata", "true");
+            config.addDataSourceProperty("cacheServerConfiguration", "true");
+            config.addDataSourceProperty("elideSetAutoCommits", "true");
+            config.addDataSourceProperty("maintainTimeStats", "false");
+
+            dataSource = new HikariDataSource(config);
+
             // 创建表
             createTables();
-            
-            plugin.getLogger().info("MySQL数据库初始化完成");
-        } catch (SQLException e) {
+
+            plugin.getLogger().info("MySQL数据库初始化完成 (连接池大小: " + poolSize + ")");
+        } catch (SQLException | RuntimeException e) {
             plugin.getLogger().severe("MySQL数据库初始化失败: " + e.getMessage());
-            throw e;
+            closeDatabase();
+            throw e instanceof SQLException sqlException ? sqlException : new SQLException(e.getMessage(), e);
         }
     }
-    
+
     /**
      * 关闭数据库连接
      * 统一的数据库关闭方法
      */
     @Override
     public void closeDatabase() {
-        if (connection != null) {
-            try {
-                connection.close();
-                plugin.getLogger().info("MySQL数据库连接已关闭");
-            } catch (SQLException e) {
-                plugin.getLogger().warning("关闭MySQL数据库连接时出错: " + e.getMessage());
-            }
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+            plugin.getLogger().info("MySQL数据库连接池已关闭");
         }
     }
-    
-    /**
-     * 创建数据库表
-     * 统一的表创建方法
-     */
-    @Override
-    protected void createTables() throws SQLException {
-        // 创建墓碑数据表
-        String createTombstonesTable = String.format("""
-            CREATE TABLE IF NOT EXISTS %s (
-                id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                player_uuid VARCHAR(36) NOT NULL,
-                world_name VARCHAR(255) NOT NULL,
-                x INT NOT NULL,
-                y INT NOT NULL,
-                z INT NOT NULL,
-                death_time BIGINT NOT NULL,
-                protection_expire BIGINT NOT NULL,
-                experience INT NOT NULL,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                INDEX idx_player_uuid (player_uuid),
-                INDEX idx_death_time (death_time)
-            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-        """, getTableName("tombstones"));
-        
-        // 创建物品数据表
-        String createItemsTable = String.format("""
-            CREATE TABLE IF NOT EXISTS %s (
-                id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                tombstone_id BIGINT NOT NULL,
-                slot_index INT NOT NULL,
-                item_data LONGBLOB NOT NULL,
-                FOREIGN KEY (tombstone_id) REFERENCES %s(id) ON DELETE CASCADE,
-                INDEX idx_tombstone_id (tombstone_id)
-            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-        """, getTableName("tombstone_items"), getTableName("tombstones"));
 
-        // 创建玩家豁免记录表
-        String createExemptionsTable = String.format("""
-            CREATE TABLE IF NOT EXISTS %s (
-                id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                player_uuid VARCHAR(36) NOT NULL,
-                exemption_date VARCHAR(10) NOT NULL,
-                used_count INT NOT NULL DEFAULT 0,
-                created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                UNIQUE KEY uk_player_date (player_uuid, exemption_date),
-                INDEX idx_player_uuid (player_uuid),
-                INDEX idx_exemption_date (exemption_date)
-            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
-        """, getTableName("player_exemptions"));
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createTombstonesTable);
-            stmt.execute(createItemsTable);
-            stmt.execute(createExemptionsTable);
-            plugin.getLogger().info("MySQL数据库表创建完成");
-        }
-    }
-    
-    /**
-     * 保存墓碑数据
-     * 统一的墓碑保存方法
-     *
-     * @param playerId 玩家UUID
-     * @param worldName 世界名称
-     * @param x X坐标
-     * @param y Y坐标
-     * @param z Z坐标
-     * @param deathTime 死亡时间
-     * @param protectionExpire 保护过期时间
-     * @param experience 经验值
-     * @param items 物品数组
-     * @return 墓碑ID
-     * @throws SQLException 数据库异常
-     */
-    public long saveTombstone(@NotNull UUID playerId, @NotNull String worldName,
-                             int x, int y, int z, long deathTime, long protectionExpire,
-                             int experience, @NotNull ItemStack[] items) throws SQLException {
-        final long[] tombstoneId = new long[1];
-        
-        executeTransaction(connection -> {
-            // 插入墓碑基本信息
-            String insertTombstone = String.format("""
-                INSERT INTO %s (player_uuid, world_name, x, y, z, death_time, protection_expire, experience)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-            """, getTableName("tombstones"));
-            
-            try (PreparedStatement stmt = connection.prepareStatement(insertTombstone, Statement.RETURN_GENERATED_KEYS)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, worldName);
-                stmt.setInt(3, x);
-                stmt.setInt(4, y);
-                stmt.setInt(5, z);
-                stmt.setLong(6, deathTime);
-                stmt.setLong(7, protectionExpire);
-                stmt.setInt(8, experience);
-                
-                stmt.executeUpdate();
-                
-                // 获取生成的墓碑ID
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        tombstoneId[0] = rs.getLong(1);
-                    }
-                }
-            }
-            
-            // 保存物品数据
-            if (tombstoneId[0] > 0 && items.length > 0) {
-                String insertItem = String.format("""
-                    INSERT INTO %s (tombstone_id, slot_index, item_data) VALUES (?, ?, ?)
-                """, getTableName("tombstone_items"));
-                
-                try (PreparedStatement stmt = connection.prepareStatement(insertItem)) {
-                    for (int i = 0; i < items.length; i++) {
-                        ItemStack item = items[i];
-                        if (item != null && !item.getType().isAir()) {
-                            stmt.setLong(1, tombstoneId[0]);
-                            stmt.setInt(2, i);
-                            stmt.setBytes(3, serializeItemStack(item));
-                            stmt.addBatch();
-                        }
-                    }
-                    stmt.executeBatch();
-                }
-            }
-        });
-        
-        return tombstoneId[0];
-    }
-    
-    /**
-     * 删除墓碑数据
-     * 统一的墓碑删除方法
-     *
-     * @param tombstoneId 墓碑ID
-     * @throws SQLException 数据库异常
-     */
-    public void deleteTombstone(long tombstoneId) throws SQLException {
-        String deleteTombstone = String.format("DELETE FROM %s WHERE id = ?", getTableName("tombstones"));
-        
-        try (PreparedStatement stmt = connection.prepareStatement(deleteTombstone)) {
-            stmt.setLong(1, tombstoneId);
-            stmt.executeUpdate();
-        }
-    }
-    
     /**
-     * 加载墓碑物品
-     * 统一的物品加载方法
+     * 从连接池借出连接
+     * 连接池自行校验连接，多个线程可并发访问数据库
      *
-     * @param tombstoneId 墓碑ID
-     * @return 物品数据列表
+     * @return 数据库连接
      * @throws SQLException 数据库异常
      */
     @NotNull
-    public List<TombstoneItemData> loadTombstoneItems(long tombstoneId) throws SQLException {
-        List<TombstoneItemData> items = new ArrayList<>();
-        String query = String.format("""
-            SELECT slot_index, item_data FROM %s
-            WHERE tombstone_id = ? ORDER BY slot_index
-        """, getTableName("tombstone_items"));
-
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setLong(1, tombstoneId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    int slotIndex = rs.getInt("slot_index");
-                    byte[] itemData = rs.getBytes("item_data");
-
-                    if (itemData != null) {
-                        try {
-                            ItemStack item = deserializeItemStack(itemData);
-                            items.add(new TombstoneItemData(slotIndex, item));
-                        } catch (Exception e) {
-                            plugin.getLogger().warning("反序列化物品失败: " + e.getMessage());
-                        }
-                    }
-                }
-            }
-        }
-
-        return items;
-    }
-    
-    /**
-     * 移除墓碑物品
-     * 统一的物品移除方法
-     *
-     * @param tombstoneId 墓碑ID
-     * @param slotIndex 槽位索引
-     * @throws SQLException 数据库异常
-     */
-    public void removeTombstoneItem(long tombstoneId, int slotIndex) throws SQLException {
-        String deleteItem = String.format("""
-            DELETE FROM %s WHERE tombstone_id = ? AND slot_index = ?
-        """, getTableName("tombstone_items"));
-        
-        try (PreparedStatement stmt = connection.prepareStatement(deleteItem)) {
-            stmt.setLong(1, tombstoneId);
-            stmt.setInt(2, slotIndex);
-            stmt.executeUpdate();
-        }
-    }
-    
-    /**
-     * 检查墓碑是否为空
-     * 统一的空墓碑检查方法
-     * 
-     * @param tombstoneId 墓碑ID
-     * @return 是否为空
-     * @throws SQLException 数据库异常
-     */
-    public boolean isTombstoneEmpty(long tombstoneId) throws SQLException {
-        String query = String.format("SELECT COUNT(*) FROM %s WHERE tombstone_id = ?", getTableName("tombstone_items"));
-        
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setLong(1, tombstoneId);
-            
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) == 0;
-                }
-            }
+    @Override
+    protected Connection acquireConnection() throws SQLException {
+        if (dataSource == null || dataSource.isClosed()) {
+            throw new SQLException("MySQL连接池未初始化");
         }
-        
-        return true;
+        return dataSource.getConnection();
     }
 
     /**
-     * 移除墓碑经验
-     * 统一的经验移除方法
+     * 归还连接到连接池
      *
-     * @param tombstoneId 墓碑ID
-     * @throws SQLException 数据库异常
+     * @param connection 数据库连接
      */
-    public void removeTombstoneExperience(long tombstoneId) throws SQLException {
-        String updateExperience = String.format("UPDATE %s SET experience = 0 WHERE id = ?",
-                                               getTableName("tombstones"));
-
-        try (PreparedStatement stmt = connection.prepareStatement(updateExperience)) {
-            stmt.setLong(1, tombstoneId);
-            stmt.executeUpdate();
-        }
+    @Override
+    protected void releaseConnection(@NotNull Connection connection) {
+        safeClose(connection);
     }
 
     /**
-     * 清理过期墓碑
-     * 统一的过期墓碑清理方法
+     * 获取MySQL结构迁移列表
+     * 版本号与SQLite迁移一一对应
      *
-     * @param currentTime 当前时间戳
-     * @return 清理的墓碑数量
-     * @throws SQLException 数据库异常
+     * @return 迁移列表
      */
-    public int cleanupExpiredTombstones(long currentTime) throws SQLException {
-
-        String query = String.format("""
-            SELECT id, player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
-            FROM %s WHERE despawn_time < ?
-        """, getTableName("tombstones"));
+    @NotNull
+    @Override
+    protected List<SchemaMigrator.SchemaMigration> getMigrations() {
+        String tombstones = getTableName("tombstones");
+        String items = getTableName("tombstone_items");
+        String exemptions = getTableName("player_exemptions");
 
-        List<TombstoneData> expiredTombstones = new ArrayList<>();
+        return List.of(
+            new SchemaMigrator.SchemaMigration(1, "create base tables", connection -> {
+                try (Statement stmt = connection.createStatement()) {
+                    // 创建墓碑数据表
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            player_uuid VARCHAR(36) NOT NULL,
+                            world_name VARCHAR(255) NOT NULL,
+                            x INT NOT NULL,
+                            y INT NOT NULL,
+                            z INT NOT NULL,
+                            death_time BIGINT NOT NULL,
+                            protection_expire BIGINT NOT NULL,
+                            despawn_time BIGINT NOT NULL DEFAULT 0,
+                            experience INT NOT NULL,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            INDEX idx_player_uuid (player_uuid),
+                            INDEX idx_death_time (death_time)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """, tombstones));
 
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            // 使用当前时间检查despawn_time字段
-            stmt.setLong(1, currentTime);
+                    // 创建物品数据表
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            tombstone_id BIGINT NOT NULL,
+                            slot_index INT NOT NULL,
+                            item_data LONGBLOB NOT NULL,
+                            FOREIGN KEY (tombstone_id) REFERENCES %s(id) ON DELETE CASCADE,
+                            INDEX idx_tombstone_id (tombstone_id)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """, items, tombstones));
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    expiredTombstones.add(new TombstoneData(
-                        rs.getLong("id"),
-                        UUID.fromString(rs.getString("player_uuid")),
-                        rs.getString("world_name"),
-                        rs.getInt("x"),
-                        rs.getInt("y"),
-                        rs.getInt("z"),
-                        rs.getLong("death_time"),
-                        rs.getLong("protection_expire"),
-                        rs.getLong("despawn_time"),
-                        rs.getInt("experience")
-                    ));
+                    // 创建玩家豁免记录表
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                            player_uuid VARCHAR(36) NOT NULL,
+                            exemption_date VARCHAR(10) NOT NULL,
+                            used_count INT NOT NULL DEFAULT 0,
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            UNIQUE KEY uk_player_date (player_uuid, exemption_date),
+                            INDEX idx_player_uuid (player_uuid),
+                            INDEX idx_exemption_date (exemption_date)
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """, exemptions));
                 }
-            }
-        }
-
-        // 删除过期墓碑
-        int deletedCount = 0;
-        for (TombstoneData tombstone : expiredTombstones) {
-            try {
-                deleteTombstone(tombstone.id());
-                deletedCount++;
-            } catch (SQLException e) {
-                plugin.getLogger().warning("删除过期墓碑失败 ID: " + tombstone.id() + " - " + e.getMessage());
-            }
-        }
-
-        return deletedCount;
+            }),
+            new SchemaMigrator.SchemaMigration(2, "add tombstones.despawn_time", connection -> {
+                // 旧版本MySQL表缺少despawn_time字段，旧数据由回填任务补齐
+                if (!SchemaMigrator.columnExists(connection, tombstones, "despawn_time")) {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN despawn_time BIGINT NOT NULL DEFAULT 0", tombstones));
+                    }
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(3, "create query indexes", connection -> {
+                // player_uuid与tombstone_id索引已随建表创建，这里补充过期清理索引
+                if (!SchemaMigrator.indexExists(connection, tombstones, "idx_despawn_time")) {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD INDEX idx_despawn_time (despawn_time)", tombstones));
+                    }
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(4, "create packed inventory table", connection -> {
+                // 整个背包打包为单行数据，见InventoryCodec
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(String.format("""
+                        CREATE TABLE IF NOT EXISTS %s (
+                            tombstone_id BIGINT NOT NULL PRIMARY KEY,
+                            slot_count INT NOT NULL,
+                            inventory_data LONGBLOB NOT NULL,
+                            FOREIGN KEY (tombstone_id) REFERENCES %s(id) ON DELETE CASCADE
+                        ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+                    """, getTableName("tombstone_inventories"), tombstones));
+                }
+            }),
+            new SchemaMigrator.SchemaMigration(5, "add item header columns", connection -> {
+                String inventories = getTableName("tombstone_inventories");
+                try (Statement stmt = connection.createStatement()) {
+                    if (!SchemaMigrator.columnExists(connection, items, "material")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN material VARCHAR(64) NULL", items));
+                    }
+                    if (!SchemaMigrator.columnExists(connection, items, "amount")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN amount INT NOT NULL DEFAULT 0", items));
+                    }
+                    if (!SchemaMigrator.columnExists(connection, items, "data_version")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN data_version INT NOT NULL DEFAULT 0", items));
+                    }
+                    if (!SchemaMigrator.columnExists(connection, inventories, "item_headers")) {
+                        stmt.execute(String.format("ALTER TABLE %s ADD COLUMN item_headers BLOB NULL", inventories));
+                    }
+                }
+            })
+        );
     }
 
     /**
-     * 获取玩家的墓碑列表
-     * 统一的墓碑查询方法
+     * 获取行锁子句
+     * 连接池下多个事务可能同时改写同一墓碑的打包数据，读取时加行锁避免覆盖
      *
-     * @param playerId 玩家UUID
-     * @return 墓碑数据列表
-     * @throws SQLException 数据库异常
+     * @return 追加在SELECT语句后的锁定子句
      */
     @NotNull
-    public List<TombstoneData> getPlayerTombstones(@NotNull UUID playerId) throws SQLException {
-        List<TombstoneData> tombstones = new ArrayList<>();
-        String query = String.format("""
-            SELECT id, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
-            FROM %s WHERE player_uuid = ? ORDER BY death_time DESC
-        """, getTableName("tombstones"));
-
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            stmt.setString(1, playerId.toString());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    TombstoneData data = new TombstoneData(
-                        rs.getLong("id"),
-                        playerId,
-                        rs.getString("world_name"),
-                        rs.getInt("x"),
-                        rs.getInt("y"),
-                        rs.getInt("z"),
-                        rs.getLong("death_time"),
-                        rs.getLong("protection_expire"),
-                        rs.getLong("despawn_time"),
-                        rs.getInt("experience")
-                    );
-                    tombstones.add(data);
-                }
-            }
-        }
-
-        return tombstones;
+    @Override
+    protected String getLockingReadClause() {
+        return " FOR UPDATE";
     }
 
     /**
-     * 获取所有墓碑数据
-     * 统一的全部墓碑查询方法
+     * 增加玩家某日的豁免使用次数
+     * MySQL使用ON DUPLICATE KEY UPDATE语法
      *
-     * @return 所有墓碑数据列表
+     * @param playerId 玩家UUID
+     * @param date 日期字符串 (yyyy-MM-dd)
      * @throws SQLException 数据库异常
      */
-    @NotNull
-    public List<TombstoneData> getAllTombstones() throws SQLException {
-        List<TombstoneData> tombstones = new ArrayList<>();
-        String query = String.format("""
-            SELECT id, player_uuid, world_name, x, y, z, death_time, protection_expire, despawn_time, experience
-            FROM %s ORDER BY death_time DESC
-        """, getTableName("tombstones"));
-
-        try (PreparedStatement stmt = connection.prepareStatement(query);
-             ResultSet rs = stmt.executeQuery()) {
+    @Override
+    public void incrementExemptionUsage(@NotNull UUID playerId, @NotNull String date) throws SQLException {
+        String upsertQuery = String.format("""
+            INSERT INTO %s (player_uuid, exemption_date, used_count) VALUES (?, ?, 1)
+            ON DUPLICATE KEY UPDATE used_count = used_count + 1
+        """, getTableName("player_exemptions"));
 
-            while (rs.next()) {
-                TombstoneData data = new TombstoneData(
-                    rs.getLong("id"),
-                    UUID.fromString(rs.getString("player_uuid")),
-                    rs.getString("world_name"),
-                    rs.getInt("x"),
-                    rs.getInt("y"),
-                    rs.getInt("z"),
-                    rs.getLong("death_time"),
-                    rs.getLong("protection_expire"),
-                    rs.getLong("despawn_time"),
-                    rs.getInt("experience")
-                );
-                tombstones.add(data);
+        executeOperation(connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(upsertQuery)) {
+                stmt.setString(1, playerId.toString());
+                stmt.setString(2, date);
+                return stmt.executeUpdate();
             }
-        }
-
-        return tombstones;
+        });
     }
-
 }
@@ -0,0 +1,112 @@
+package cn.i7mc.managers;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.listeners.TombstoneEnvironmentListener;
+import cn.i7mc.listeners.TombstoneExplosionListener;
+import org.bukkit.World;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+
+/**
+ * 保护监听器管理器 - 按需注册高频的墓碑保护监听器
+ * 没有活跃墓碑时注销环境保护监听器，墓碑所在世界都未启用头颅保护时注销爆炸保护监听器
+ * 所有方法都必须在主线程调用
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class ProtectionListenerManager {
+
+    private final PlayerDeadManager plugin;
+    private final TombstoneManager tombstoneManager;
+    private final WorldConfigManager worldConfigManager;
+    private final TombstoneEnvironmentListener environmentListener;
+    private final TombstoneExplosionListener explosionListener;
+    private boolean environmentRegistered;
+    private boolean explosionRegistered;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     */
+    public ProtectionListenerManager(@NotNull PlayerDeadManager plugin) {
+        this.plugin = plugin;
+        this.tombstoneManager = plugin.getTombstoneManager();
+        this.worldConfigManager = plugin.getWorldConfigManager();
+        this.environmentListener = new TombstoneEnvironmentListener(plugin);
+        this.explosionListener = new TombstoneExplosionListener(plugin);
+    }
+
+    /**
+     * 根据当前墓碑和世界配置刷新监听器注册状态
+     * 统一的监听器切换方法，在墓碑增减和配置重载后调用
+     */
+    public void refresh() {
+        boolean hasTombstones = tombstoneManager.getActiveTombstonesCount() > 0;
+        environmentRegistered = setRegistered(environmentListener, environmentRegistered, hasTombstones);
+        explosionRegistered = setRegistered(explosionListener, explosionRegistered,
+            hasTombstones && hasSkullProtectedTombstoneWorld());
+    }
+
+    /**
+     * 注销所有按需注册的监听器
+     */
+    public void unregisterAll() {
+        environmentRegistered = setRegistered(environmentListener, environmentRegistered, false);
+        explosionRegistered = setRegistered(explosionListener, explosionRegistered, false);
+    }
+
+    /**
+     * 检查环境保护监听器是否已注册
+     *
+     * @return 是否已注册
+     */
+    public boolean isEnvironmentRegistered() {
+        return environmentRegistered;
+    }
+
+    /**
+     * 检查爆炸保护监听器是否已注册
+     *
+     * @return 是否已注册
+     */
+    public boolean isExplosionRegistered() {
+        return explosionRegistered;
+    }
+
+    /**
+     * 检查是否有墓碑位于启用头颅保护的世界
+     *
+     * @return 是否存在
+     */
+    private boolean hasSkullProtectedTombstoneWorld() {
+        for (UUID worldId : tombstoneManager.getTombstoneWorldIds()) {
+            World world = plugin.getServer().getWorld(worldId);
+            if (world != null && worldConfigManager.isSkullProtectionEnabled(world.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 切换监听器注册状态
+     *
+     * @param listener 监听器
+     * @param registered 当前是否已注册
+     * @param required 是否需要注册
+     * @return 切换后的注册状态
+     */
+    private boolean setRegistered(@NotNull Listener listener, boolean registered, boolean required) {
+        if (required && !registered) {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        } else if (!required && registered) {
+            HandlerList.unregisterAll(listener);
+        }
+        return required;
+    }
+}
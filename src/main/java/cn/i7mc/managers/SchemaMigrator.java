@@ -0,0 +1,196 @@
+package cn.i7mc.managers;
+
+import cn.i7mc.PlayerDeadManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 数据库结构迁移器 - 按版本号顺序执行一次性迁移
+ * 已执行的版本记录在schema_version表中，每个迁移都应可重复执行（幂等）
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class SchemaMigrator {
+
+    private final PlayerDeadManager plugin;
+    private final String versionTable;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     * @param versionTable 版本记录表名
+     */
+    public SchemaMigrator(@NotNull PlayerDeadManager plugin, @NotNull String versionTable) {
+        this.plugin = plugin;
+        this.versionTable = versionTable;
+    }
+
+    /**
+     * 执行未应用的迁移
+     * 统一的迁移方法，每个迁移在独立事务中执行并记录版本号
+     *
+     * @param connection 数据库连接
+     * @param migrations 迁移列表
+     * @throws SQLException 数据库异常
+     */
+    public void migrate(@NotNull Connection connection, @NotNull List<SchemaMigration> migrations) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(String.format("""
+                CREATE TABLE IF NOT EXISTS %s (
+                    version INTEGER NOT NULL PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    applied_at BIGINT NOT NULL
+                )
+            """, versionTable));
+        }
+
+        Set<Integer> appliedVersions = getAppliedVersions(connection);
+        List<SchemaMigration> pending = migrations.stream()
+            .filter(migration -> !appliedVersions.contains(migration.version()))
+            .sorted(Comparator.comparingInt(SchemaMigration::version))
+            .toList();
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        String insertVersion = String.format("INSERT INTO %s (version, description, applied_at) VALUES (?, ?, ?)", versionTable);
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            for (SchemaMigration migration : pending) {
+                try {
+                    migration.step().apply(connection);
+
+                    try (PreparedStatement stmt = connection.prepareStatement(insertVersion)) {
+                        stmt.setInt(1, migration.version());
+                        stmt.setString(2, migration.description());
+                        stmt.setLong(3, System.currentTimeMillis());
+                        stmt.executeUpdate();
+                    }
+
+                    connection.commit();
+                    plugin.getLogger().info("数据库迁移完成: V" + migration.version() + " " + migration.description());
+                } catch (SQLException e) {
+                    connection.rollback();
+                    plugin.getLogger().severe("数据库迁移失败: V" + migration.version() + " " + migration.description());
+                    throw e;
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * 获取已应用的迁移版本
+     *
+     * @param connection 数据库连接
+     * @return 版本号集合
+     * @throws SQLException 数据库异常
+     */
+    @NotNull
+    private Set<Integer> getAppliedVersions(@NotNull Connection connection) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM " + versionTable)) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * 检查字段是否存在
+     * 统一的字段检查方法，用于编写幂等迁移
+     *
+     * @param connection 数据库连接
+     * @param table 表名
+     * @param column 字段名
+     * @return 字段是否存在
+     * @throws SQLException 数据库异常
+     */
+    public static boolean columnExists(@NotNull Connection connection, @NotNull String table,
+                                       @NotNull String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT))) {
+            try (ResultSet rs = metaData.getColumns(connection.getCatalog(), null, name, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 检查索引是否存在
+     * 统一的索引检查方法，用于编写幂等迁移
+     *
+     * @param connection 数据库连接
+     * @param table 表名
+     * @param index 索引名
+     * @return 索引是否存在
+     * @throws SQLException 数据库异常
+     */
+    public static boolean indexExists(@NotNull Connection connection, @NotNull String table,
+                                      @NotNull String index) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : List.of(table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT))) {
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, name, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 迁移步骤接口
+     */
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(@NotNull Connection connection) throws SQLException;
+    }
+
+    /**
+     * 回填步骤接口
+     * 每次调用处理一个批次，返回本批处理的行数，返回0表示已完成
+     */
+    @FunctionalInterface
+    public interface BackfillStep {
+        int applyChunk(@NotNull Connection connection, int chunkSize) throws SQLException;
+    }
+
+    /**
+     * 结构迁移记录类
+     */
+    public record SchemaMigration(
+        int version,
+        String description,
+        MigrationStep step
+    ) {}
+
+    /**
+     * 数据回填记录类
+     * 大表数据修正在启动后分批执行，避免阻塞服务器启动
+     */
+    public record SchemaBackfill(
+        String description,
+        BackfillStep step
+    ) {}
+}
@@ -2,14 +2,23 @@ package cn.i7mc.managers;
 
 import cn.i7mc.PlayerDeadManager;
 import cn.i7mc.tombstones.PlayerTombstone;
+import cn.i7mc.tombstones.TombstoneSpatialIndex;
 import cn.i7mc.utils.EntityCleanupManager;
+import cn.i7mc.utils.GuidanceTracker;
 import cn.i7mc.utils.HologramUtil;
+import cn.i7mc.utils.LocationUtil;
+import cn.i7mc.utils.LongObjectMap;
 import cn.i7mc.utils.ParticleUtil;
 import cn.i7mc.utils.TimeUtil;
+import cn.i7mc.utils.TombstonePlacementFinder;
+import cn.i7mc.utils.VisibilityTracker;
+import cn.i7mc.utils.VisualLodController;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -19,11 +28,17 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 墓碑管理器 - 统一处理墓碑创建、管理和移除
@@ -38,12 +53,26 @@ public class TombstoneManager {
     private final ConfigManager configManager;
     private final MessageManager messageManager;
     private final DataManager dataManager;
+    private final VisibilityTracker visibilityTracker;
+    private final VisualLodController lodController;
     private final HologramUtil hologramUtil;
     private final ParticleUtil particleUtil;
+    private final GuidanceTracker guidanceTracker;
     private final EntityCleanupManager entityCleanupManager;
-    private final Map<Location, PlayerTombstone> activeTombstones;
+    private final TombstoneSpatialIndex activeTombstones;
+    private final LongObjectMap<PlayerTombstone> tombstonesById;
+    private final Map<UUID, ArrayDeque<PlayerTombstone>> tombstonesByPlayer;
     private final NamespacedKey tombstoneKey;
+    private final TombstoneWriteQueue writeQueue;
+    private final AtomicLong provisionalIds;
+    private final Map<String, Map<Long, List<PlayerTombstone>>> pendingRestores;
+    private final ArrayDeque<PlayerTombstone> restoreQueue;
+    private final TombstonePlacementFinder placementFinder;
     private BukkitTask cleanupTask;
+    private BukkitTask restoreTask;
+
+    // 配置重载时解析一次的墓碑方块类型
+    private Material tombstoneMaterial;
     
     /**
      * 构造函数
@@ -59,123 +88,296 @@ public class TombstoneManager {
         this.configManager = configManager;
         this.messageManager = messageManager;
         this.dataManager = dataManager;
-        this.hologramUtil = new HologramUtil(plugin, configManager, messageManager);
-        this.particleUtil = new ParticleUtil(plugin, configManager);
+        this.visibilityTracker = new VisibilityTracker(plugin, configManager);
+        this.lodController = new VisualLodController(plugin, configManager);
+        this.hologramUtil = new HologramUtil(plugin, configManager, messageManager, visibilityTracker, lodController);
+        this.particleUtil = new ParticleUtil(plugin, configManager, visibilityTracker, lodController);
+        this.guidanceTracker = new GuidanceTracker(plugin, configManager, messageManager, this, particleUtil, lodController);
         this.entityCleanupManager = new EntityCleanupManager(plugin, configManager, messageManager);
-        this.activeTombstones = new HashMap<>();
+        this.activeTombstones = new TombstoneSpatialIndex();
+        this.tombstonesById = new LongObjectMap<>();
+        this.tombstonesByPlayer = new HashMap<>();
         this.tombstoneKey = new NamespacedKey(plugin, "tombstone_id");
-
-        // 设置HologramUtil的TombstoneManager引用
-        this.hologramUtil.setTombstoneManager(this);
+        this.writeQueue = new TombstoneWriteQueue(plugin, configManager, dataManager);
+        this.provisionalIds = new AtomicLong();
+        this.pendingRestores = new HashMap<>();
+        this.restoreQueue = new ArrayDeque<>();
+        this.placementFinder = new TombstonePlacementFinder();
+        this.tombstoneMaterial = resolveTombstoneMaterial();
     }
     
     /**
      * 创建墓碑
      * 统一的墓碑创建方法
+     * 墓碑先以临时ID立即生效，数据库写入由写入队列异步完成后回填真实ID
+     * 死亡位置无法放置时，在区块快照上异步搜索最近的可用位置，墓碑在之后的tick中创建
      * 
      * @param player 死亡玩家
      * @param location 墓碑位置
      * @param items 物品数组
      * @param experience 经验值
-     * @return 创建的墓碑实例，失败返回null
+     * @return 创建的墓碑实例，失败或需要异步搜索位置时返回null
      */
     @Nullable
     public PlayerTombstone createTombstone(@NotNull Player player, @NotNull Location location,
                                          @NotNull ItemStack[] items, int experience) {
-        try {
-            // 检查墓碑数量限制
-            if (!checkTombstoneLimit(player)) {
-                return null;
+        // 检查墓碑数量限制
+        if (!checkTombstoneLimit(player)) {
+            return null;
+        }
+
+        // 复制物品快照，序列化在持久化线程中进行
+        ItemStack[] itemSnapshot = snapshotItems(items);
+
+        // 检查位置是否可以放置墓碑
+        if (!canPlaceTombstone(location)) {
+            searchPlacementAsync(player, location, itemSnapshot, experience);
+            return null;
+        }
+
+        return spawnTombstone(player, location, itemSnapshot, experience);
+    }
+
+    /**
+     * 异步搜索墓碑位置
+     * 主线程截取区块快照，异步线程按距离由近到远搜索，找到后回到主线程创建墓碑
+     *
+     * @param player 死亡玩家
+     * @param origin 死亡位置
+     * @param itemSnapshot 物品快照
+     * @param experience 经验值
+     */
+    private void searchPlacementAsync(@NotNull Player player, @NotNull Location origin,
+                                      @NotNull ItemStack[] itemSnapshot, int experience) {
+        int searchRadius = configManager.getInt("tombstone.search-radius", 5);
+        TombstonePlacementFinder.SearchArea area = placementFinder.capture(origin, searchRadius);
+        if (area == null) {
+            sendNoSpaceMessage(player);
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            Location found = placementFinder.findNearest(area);
+            if (!plugin.isEnabled()) {
+                return;
             }
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                Location location = found;
 
-            // 检查位置是否可以放置墓碑
-            if (!canPlaceTombstone(location)) {
-                // 寻找附近可用位置
-                location = findNearbyLocation(location);
+                // 搜索期间方块可能已被改变，放置前复核，失效时直接读取世界方块重新搜索
+                if (location != null && !canPlaceTombstone(location)) {
+                    location = placementFinder.findNearestLoaded(origin, searchRadius);
+                }
                 if (location == null) {
-                    Map<String, String> placeholders = messageManager.createPlaceholders();
-                    messageManager.addPlayerPlaceholders(placeholders, player);
-                    messageManager.sendMessage(player, "tombstone.no-space", placeholders);
-                    return null;
+                    sendNoSpaceMessage(player);
+                    return;
                 }
+                spawnTombstone(player, location, itemSnapshot, experience);
+            });
+        });
+    }
+
+    /**
+     * 发送无法放置墓碑消息
+     *
+     * @param player 玩家
+     */
+    private void sendNoSpaceMessage(@NotNull Player player) {
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        messageManager.addPlayerPlaceholders(placeholders, player);
+        messageManager.sendMessage(player, "tombstone.no-space", placeholders);
+    }
+
+    /**
+     * 在指定位置生成墓碑
+     * 统一的墓碑生成方法，放置方块、建立索引并提交写入队列
+     *
+     * @param player 死亡玩家
+     * @param location 已确认可放置的墓碑位置
+     * @param itemSnapshot 物品快照
+     * @param experience 经验值
+     * @return 创建的墓碑实例，写入失败返回null
+     */
+    @Nullable
+    private PlayerTombstone spawnTombstone(@NotNull Player player, @NotNull Location location,
+                                          @NotNull ItemStack[] itemSnapshot, int experience) {
+        // 计算保护过期时间和消失时间（支持VIP权限时间）
+        long currentTime = System.currentTimeMillis();
+        VipTimeManager vipTimeManager = plugin.getVipTimeManager();
+
+        long protectionMinutes = vipTimeManager.getProtectionTime(player);
+        long protectionDuration = TimeUtil.minutesToMillis(protectionMinutes);
+        long protectionExpire = currentTime + protectionDuration;
+
+        long despawnHours = vipTimeManager.getDespawnTime(player);
+        long despawnDuration = TimeUtil.hoursToMillis(despawnHours);
+        long despawnTime = currentTime + despawnDuration;
+
+        // 创建临时墓碑实例
+        long provisionalId = provisionalIds.decrementAndGet();
+        PlayerTombstone tombstone = new PlayerTombstone(
+            player.getUniqueId(),
+            location,
+            currentTime,
+            protectionExpire,
+            despawnTime,
+            experience,
+            provisionalId
+        );
+
+        // 放置墓碑方块
+        placeTombstoneBlock(location, provisionalId, player.getUniqueId());
+        tombstone.setHasSkull(true);
+
+        // 添加到活跃墓碑列表
+        addActiveTombstone(tombstone);
+
+        // 创建全息图和粒子效果
+        showVisuals(tombstone);
+
+        // 提交到写入队列
+        DataManager.TombstoneWrite write = new DataManager.TombstoneWrite(
+            player.getUniqueId(),
+            location.getWorld().getName(),
+            location.getBlockX(),
+            location.getBlockY(),
+            location.getBlockZ(),
+            currentTime,
+            protectionExpire,
+            despawnTime,
+            experience,
+            itemSnapshot
+        );
+        writeQueue.submit(write,
+            tombstoneId -> handleTombstonePersisted(tombstone, tombstoneId),
+            error -> handleTombstonePersistFailed(tombstone, itemSnapshot));
+
+        // 同步写入失败时墓碑已被回滚
+        if (tombstone.isRemoved()) {
+            return null;
+        }
+
+        // 发送成功消息
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        messageManager.addPlayerPlaceholders(placeholders, player);
+        messageManager.addLocationPlaceholders(placeholders,
+            location.getWorld().getName(),
+            location.getBlockX(),
+            location.getBlockY(),
+            location.getBlockZ());
+        messageManager.sendMessage(player, "tombstone.created", placeholders);
+
+        return tombstone;
+    }
+
+    /**
+     * 复制物品快照
+     * 统一的物品快照方法，避免持久化线程读取到被修改的物品
+     *
+     * @param items 物品数组
+     * @return 物品快照
+     */
+    @NotNull
+    private ItemStack[] snapshotItems(@NotNull ItemStack[] items) {
+        ItemStack[] snapshot = new ItemStack[items.length];
+        for (int i = 0; i < items.length; i++) {
+            ItemStack item = items[i];
+            if (item != null && !item.getType().isAir()) {
+                snapshot[i] = item.clone();
             }
+        }
+        return snapshot;
+    }
 
-            // 计算保护过期时间和消失时间（支持VIP权限时间）
-            long currentTime = System.currentTimeMillis();
-            VipTimeManager vipTimeManager = plugin.getVipTimeManager();
+    /**
+     * 处理墓碑写入完成
+     * 统一的ID回填方法，将临时ID替换为数据库ID
+     *
+     * @param tombstone 墓碑实例
+     * @param tombstoneId 数据库中的墓碑ID
+     */
+    private void handleTombstonePersisted(@NotNull PlayerTombstone tombstone, long tombstoneId) {
+        if (tombstonesById.get(tombstone.getTombstoneId()) == tombstone) {
+            tombstonesById.remove(tombstone.getTombstoneId());
+            tombstonesById.put(tombstoneId, tombstone);
+        }
+        tombstone.assignTombstoneId(tombstoneId);
 
-            long protectionMinutes = vipTimeManager.getProtectionTime(player);
-            long protectionDuration = TimeUtil.minutesToMillis(protectionMinutes);
-            long protectionExpire = currentTime + protectionDuration;
+        // 写入完成前墓碑已被移除，删除刚写入的数据
+        if (tombstone.isRemoved()) {
+            deleteTombstoneData(tombstoneId);
+            return;
+        }
 
-            long despawnHours = vipTimeManager.getDespawnTime(player);
-            long despawnDuration = TimeUtil.hoursToMillis(despawnHours);
-            long despawnTime = currentTime + despawnDuration;
+        // 更新方块和全息图上的墓碑ID标记，区块已卸载时不加载区块，由恢复流程重新写入方块标记
+        Location location = tombstone.getLocation();
+        World world = location.getWorld();
+        if (world == null || !world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+            return;
+        }
+        Block block = location.getBlock();
+        if (block.getState() instanceof org.bukkit.block.TileState tileState) {
+            tileState.getPersistentDataContainer().set(tombstoneKey, PersistentDataType.LONG, tombstoneId);
+            tileState.update();
+        }
+        hologramUtil.updateHologramTombstoneId(location, tombstoneId);
+    }
 
-            // 保存到数据库
-            long tombstoneId = dataManager.saveTombstone(
-                player.getUniqueId(),
-                location.getWorld().getName(),
-                location.getBlockX(),
-                location.getBlockY(),
-                location.getBlockZ(),
-                currentTime,
-                protectionExpire,
-                despawnTime,
-                experience,
-                items
-            );
-            
-            // 创建墓碑实例
-            PlayerTombstone tombstone = new PlayerTombstone(
-                player.getUniqueId(),
-                location,
-                currentTime,
-                protectionExpire,
-                despawnTime,
-                experience,
-                tombstoneId
-            );
-            
-            // 放置墓碑方块
-            placeTombstoneBlock(location, tombstoneId, player.getUniqueId());
-            
-            // 添加到活跃墓碑列表
-            activeTombstones.put(location, tombstone);
+    /**
+     * 删除墓碑数据
+     * 统一的数据库删除方法，在异步线程执行，避免在死亡事件等主线程流程中等待数据库连接
+     * 插件已禁用时直接在当前线程删除
+     *
+     * @param tombstoneId 数据库中的墓碑ID
+     */
+    private void deleteTombstoneData(long tombstoneId) {
+        Runnable delete = () -> {
+            try {
+                dataManager.deleteTombstone(tombstoneId);
+            } catch (SQLException e) {
+                plugin.getLogger().warning("删除墓碑数据失败 ID: " + tombstoneId + " - " + e.getMessage());
+            }
+        };
 
-            // 创建全息图和粒子效果
-            hologramUtil.createHologram(tombstone);
-            tombstone.setHasHologram(true);
+        if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, delete);
+        } else {
+            delete.run();
+        }
+    }
 
-            particleUtil.createParticleEffect(tombstone);
-            tombstone.setHasParticles(true);
+    /**
+     * 处理墓碑写入失败
+     * 统一的回滚方法，移除墓碑并将物品掉落在原地，避免物品丢失
+     *
+     * @param tombstone 墓碑实例
+     * @param items 物品快照
+     */
+    private void handleTombstonePersistFailed(@NotNull PlayerTombstone tombstone, @NotNull ItemStack[] items) {
+        Location location = tombstone.getLocation();
+        if (!tombstone.isRemoved()) {
+            removeTombstoneInternal(location, tombstone, false);
 
-            // 发送成功消息
-            Map<String, String> placeholders = messageManager.createPlaceholders();
-            messageManager.addPlayerPlaceholders(placeholders, player);
-            messageManager.addLocationPlaceholders(placeholders,
-                location.getWorld().getName(),
-                location.getBlockX(),
-                location.getBlockY(),
-                location.getBlockZ());
-            messageManager.sendMessage(player, "tombstone.created", placeholders);
+            if (location.getWorld() != null) {
+                for (ItemStack item : items) {
+                    if (item != null) {
+                        location.getWorld().dropItemNaturally(location, item);
+                    }
+                }
+            }
+        }
 
-            return tombstone;
-            
-        } catch (SQLException e) {
-            plugin.getLogger().severe("创建墓碑时数据库错误: " + e.getMessage());
-            e.printStackTrace();
-            
+        Player player = plugin.getServer().getPlayer(tombstone.getPlayerId());
+        if (player != null) {
             Map<String, String> placeholders = messageManager.createPlaceholders();
             messageManager.addPlayerPlaceholders(placeholders, player);
             messageManager.sendMessage(player, "tombstone.creation-failed", placeholders);
-            return null;
         }
     }
     
     /**
      * 检查玩家墓碑数量限制
-     * 统一的数量限制检查方法
+     * 统一的数量限制检查方法，使用内存中的玩家墓碑索引，不查询数据库
      *
      * @param player 玩家
      * @return 是否可以创建新墓碑
@@ -183,17 +385,17 @@ public class TombstoneManager {
     private boolean checkTombstoneLimit(@NotNull Player player) {
         int maxTombstones = configManager.getInt("tombstone.max-tombstones", 3);
 
-        // 获取玩家当前墓碑数量
-        List<DataManager.TombstoneData> playerTombstones = getPlayerTombstones(player.getUniqueId());
+        // 获取玩家当前墓碑数量（包括尚未写入数据库的墓碑）
+        int currentTombstones = getPlayerTombstoneCount(player.getUniqueId());
 
-        if (playerTombstones.size() >= maxTombstones) {
+        if (currentTombstones >= maxTombstones) {
             // 尝试删除最旧的墓碑
-            if (!removeOldestTombstone(player, playerTombstones)) {
+            if (!removeOldestTombstone(player)) {
                 // 发送限制消息
                 Map<String, String> placeholders = messageManager.createPlaceholders();
                 messageManager.addPlayerPlaceholders(placeholders, player);
                 placeholders.put("max_tombstones", String.valueOf(maxTombstones));
-                placeholders.put("current_tombstones", String.valueOf(playerTombstones.size()));
+                placeholders.put("current_tombstones", String.valueOf(currentTombstones));
                 messageManager.sendMessage(player, "tombstone.limit-reached", placeholders);
                 return false;
             }
@@ -204,61 +406,37 @@ public class TombstoneManager {
 
     /**
      * 移除最旧的墓碑
-     * 统一的旧墓碑移除方法
+     * 统一的旧墓碑移除方法，走完整的移除流程（全息图、粒子效果、方块和数据库）
      *
      * @param player 玩家
-     * @param tombstones 墓碑列表
      * @return 是否成功移除
      */
-    private boolean removeOldestTombstone(@NotNull Player player, @NotNull List<DataManager.TombstoneData> tombstones) {
-        if (tombstones.isEmpty()) {
+    private boolean removeOldestTombstone(@NotNull Player player) {
+        ArrayDeque<PlayerTombstone> tombstones = tombstonesByPlayer.get(player.getUniqueId());
+        if (tombstones == null || tombstones.isEmpty()) {
             return false;
         }
 
-        // 找到最旧的墓碑
-        DataManager.TombstoneData oldestTombstone = tombstones.stream()
-            .min((t1, t2) -> Long.compare(t1.deathTime(), t2.deathTime()))
-            .orElse(null);
+        // 索引按死亡时间升序排列，队首即最旧的墓碑
+        PlayerTombstone oldestTombstone = tombstones.peekFirst();
+        Location location = oldestTombstone.getLocation();
+        removeTombstoneInternal(location, oldestTombstone, true);
 
-        if (oldestTombstone == null) {
+        if (!oldestTombstone.isRemoved()) {
             return false;
         }
 
-        try {
-            // 从数据库删除
-            dataManager.deleteTombstone(oldestTombstone.id());
+        // 发送移除消息
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        messageManager.addPlayerPlaceholders(placeholders, player);
+        messageManager.addLocationPlaceholders(placeholders,
+            location.getWorld().getName(),
+            location.getBlockX(),
+            location.getBlockY(),
+            location.getBlockZ());
+        messageManager.sendMessage(player, "tombstone.oldest-removed", placeholders);
 
-            // 从活跃列表移除
-            Location location = new Location(
-                plugin.getServer().getWorld(oldestTombstone.worldName()),
-                oldestTombstone.x(),
-                oldestTombstone.y(),
-                oldestTombstone.z()
-            );
-
-            if (location.getWorld() != null) {
-                activeTombstones.remove(location);
-                // 移除方块
-                location.getBlock().setType(Material.AIR);
-            }
-
-            // 发送移除消息
-            Map<String, String> placeholders = messageManager.createPlaceholders();
-            messageManager.addPlayerPlaceholders(placeholders, player);
-            messageManager.addLocationPlaceholders(placeholders,
-                oldestTombstone.worldName(),
-                oldestTombstone.x(),
-                oldestTombstone.y(),
-                oldestTombstone.z());
-            messageManager.sendMessage(player, "tombstone.oldest-removed", placeholders);
-
-            return true;
-
-        } catch (SQLException e) {
-            plugin.getLogger().severe("移除最旧墓碑时数据库错误: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
+        return true;
     }
 
     /**
@@ -269,43 +447,8 @@ public class TombstoneManager {
      * @return 是否可以放置
      */
     private boolean canPlaceTombstone(@NotNull Location location) {
-        Block block = location.getBlock();
-        Material blockType = block.getType();
-        
-        // 检查是否为空气或可替换方块
-        return blockType.isAir() || 
-               blockType == Material.WATER || 
-               blockType == Material.LAVA ||
-               blockType == Material.TALL_GRASS ||
-               blockType == Material.GRASS ||
-               blockType == Material.FERN ||
-               blockType == Material.DEAD_BUSH;
-    }
-    
-    /**
-     * 寻找附近可用位置
-     * 统一的位置搜索方法
-     * 
-     * @param originalLocation 原始位置
-     * @return 可用位置，未找到返回null
-     */
-    @Nullable
-    private Location findNearbyLocation(@NotNull Location originalLocation) {
-        int searchRadius = configManager.getInt("tombstone.search-radius", 5);
-        
-        // 在原位置周围搜索
-        for (int y = 0; y <= searchRadius; y++) {
-            for (int x = -searchRadius; x <= searchRadius; x++) {
-                for (int z = -searchRadius; z <= searchRadius; z++) {
-                    Location testLocation = originalLocation.clone().add(x, y, z);
-                    if (canPlaceTombstone(testLocation)) {
-                        return testLocation;
-                    }
-                }
-            }
-        }
-        
-        return null;
+        // 检查是否为空气或可替换方块，与位置搜索使用相同的规则
+        return LocationUtil.isReplaceable(location.getBlock().getType());
     }
     
     /**
@@ -319,17 +462,6 @@ public class TombstoneManager {
     private void placeTombstoneBlock(@NotNull Location location, long tombstoneId, @NotNull UUID playerUuid) {
         Block block = location.getBlock();
 
-        // 获取配置的墓碑方块类型
-        String materialName = configManager.getString("tombstone.block-type", "CHEST");
-        Material tombstoneMaterial;
-
-        try {
-            tombstoneMaterial = Material.valueOf(materialName.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("无效的墓碑方块类型: " + materialName + "，使用默认的CHEST");
-            tombstoneMaterial = Material.CHEST;
-        }
-
         // 设置方块类型
         block.setType(tombstoneMaterial);
 
@@ -392,7 +524,11 @@ public class TombstoneManager {
 
         try {
             // 1. 先从活跃列表移除，避免并发问题
-            activeTombstones.remove(location);
+            removeActiveTombstone(location);
+            boolean pendingRestore = tombstone.isPendingRestore();
+            if (pendingRestore) {
+                removePendingRestore(tombstone);
+            }
 
             // 2. 移除全息图（使用try-catch确保即使失败也继续清理）
             if (tombstone.hasHologram()) {
@@ -405,19 +541,7 @@ public class TombstoneManager {
                 }
             }
 
-            // 3. 额外的全息图清理保障（通过墓碑ID清理）
-            try {
-                int cleanedHolograms = entityCleanupManager.cleanupHologramsByTombstoneId(
-                    tombstone.getTombstoneId(), location.getWorld());
-                if (cleanedHolograms > 0) {
-                    plugin.getLogger().info("额外清理了 " + cleanedHolograms + " 个残留全息图实体");
-                    tombstone.setHasHologram(false);
-                }
-            } catch (Exception e) {
-                errors.add("额外全息图清理失败: " + e.getMessage());
-            }
-
-            // 4. 移除粒子效果
+            // 3. 移除粒子效果
             if (tombstone.hasParticles()) {
                 try {
                     particleUtil.removeParticleEffect(location);
@@ -428,22 +552,24 @@ public class TombstoneManager {
                 }
             }
 
-            // 5. 移除方块
+            // 4. 移除方块（等待恢复的墓碑所在区块未加载时异步加载后再移除，避免同步加载区块）
             try {
-                tombstone.removeTombstone(); // 使用统一的墓碑移除方法
+                World world = location.getWorld();
+                if (pendingRestore && world != null
+                        && !world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                    world.getChunkAtAsync(location.getBlockX() >> 4, location.getBlockZ() >> 4)
+                        .thenAccept(chunk -> entityCleanupManager.cleanupTombstoneBlockAt(location));
+                } else {
+                    tombstone.removeTombstone(); // 使用统一的墓碑移除方法
+                }
             } catch (Exception e) {
                 errors.add("移除方块失败: " + e.getMessage());
                 success = false;
             }
 
-            // 6. 从数据库删除（如果需要）
-            if (deleteFromDatabase) {
-                try {
-                    dataManager.deleteTombstone(tombstone.getTombstoneId());
-                } catch (SQLException e) {
-                    errors.add("数据库删除失败: " + e.getMessage());
-                    success = false;
-                }
+            // 6. 从数据库删除（如果需要），尚未写入的墓碑由写入完成回调删除
+            if (deleteFromDatabase && tombstone.getTombstoneId() > 0) {
+                deleteTombstoneData(tombstone.getTombstoneId());
             }
 
             // 7. 标记整体实例为已移除
@@ -491,22 +617,8 @@ public class TombstoneManager {
             return false;
         }
 
-        // 查找墓碑位置
-        Location location = null;
-        for (Map.Entry<Location, PlayerTombstone> entry : activeTombstones.entrySet()) {
-            if (entry.getValue().getTombstoneId() == tombstoneId) {
-                location = entry.getKey();
-                break;
-            }
-        }
-
-        if (location == null) {
-            plugin.getLogger().warning("找到墓碑实例但无法找到位置，墓碑ID: " + tombstoneId);
-            return false;
-        }
-
         // 使用位置移除墓碑
-        return removeTombstone(location);
+        return removeTombstoneInternal(tombstone.getLocation(), tombstone, true);
     }
     
     /**
@@ -521,6 +633,43 @@ public class TombstoneManager {
         return activeTombstones.get(location);
     }
 
+    /**
+     * 获取方块位置的墓碑
+     * 统一的方块墓碑获取方法，不创建Location对象，供高频方块事件使用
+     *
+     * @param block 方块
+     * @return 墓碑实例，不存在返回null
+     */
+    @Nullable
+    public PlayerTombstone getTombstone(@NotNull Block block) {
+        return activeTombstones.get(block);
+    }
+
+    /**
+     * 检查方块位置是否为墓碑
+     * 统一的快速判断方法，不分配任何对象
+     *
+     * @param block 方块
+     * @return 是否为墓碑位置
+     */
+    public boolean isTombstoneAt(@NotNull Block block) {
+        return activeTombstones.contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * 检查坐标是否为墓碑位置
+     * 统一的快速判断方法，不分配任何对象
+     *
+     * @param world 世界
+     * @param x 方块X坐标
+     * @param y 方块Y坐标
+     * @param z 方块Z坐标
+     * @return 是否为墓碑位置
+     */
+    public boolean isTombstoneAt(@NotNull World world, int x, int y, int z) {
+        return activeTombstones.contains(world, x, y, z);
+    }
+
     /**
      * 通过ID获取墓碑实例
      * 统一的墓碑ID查找方法
@@ -530,10 +679,102 @@ public class TombstoneManager {
      */
     @Nullable
     public PlayerTombstone getTombstoneById(long tombstoneId) {
-        return activeTombstones.values().stream()
-            .filter(tombstone -> tombstone.getTombstoneId() == tombstoneId)
-            .findFirst()
-            .orElse(null);
+        return tombstonesById.get(tombstoneId);
+    }
+
+    /**
+     * 添加活跃墓碑
+     * 统一的索引维护方法，同时更新位置索引和ID索引
+     *
+     * @param tombstone 墓碑实例
+     */
+    private void addActiveTombstone(@NotNull PlayerTombstone tombstone) {
+        int worldCount = activeTombstones.getWorldIds().size();
+        activeTombstones.put(tombstone);
+        tombstonesById.put(tombstone.getTombstoneId(), tombstone);
+
+        // 新墓碑通常是最新的，直接追加到队尾；否则按死亡时间插入
+        ArrayDeque<PlayerTombstone> playerTombstones =
+            tombstonesByPlayer.computeIfAbsent(tombstone.getPlayerId(), playerId -> new ArrayDeque<>());
+        PlayerTombstone newest = playerTombstones.peekLast();
+        if (newest == null || newest.getDeathTime() <= tombstone.getDeathTime()) {
+            playerTombstones.addLast(tombstone);
+        } else {
+            List<PlayerTombstone> ordered = new ArrayList<>(playerTombstones);
+            ordered.add(tombstone);
+            ordered.sort(Comparator.comparingLong(PlayerTombstone::getDeathTime));
+            playerTombstones.clear();
+            playerTombstones.addAll(ordered);
+        }
+
+        // 有墓碑的世界集合变化时才需要重新判断保护监听器
+        if (activeTombstones.getWorldIds().size() != worldCount) {
+            refreshProtectionListeners();
+        }
+    }
+
+    /**
+     * 移除活跃墓碑
+     * 统一的索引维护方法，同时更新位置索引和ID索引
+     *
+     * @param location 墓碑位置
+     * @return 被移除的墓碑实例，不存在返回null
+     */
+    @Nullable
+    private PlayerTombstone removeActiveTombstone(@NotNull Location location) {
+        PlayerTombstone tombstone = activeTombstones.get(location);
+        if (tombstone == null) {
+            return null;
+        }
+        int worldCount = activeTombstones.getWorldIds().size();
+        activeTombstones.remove(tombstone);
+        if (activeTombstones.getWorldIds().size() != worldCount) {
+            refreshProtectionListeners();
+        }
+
+        if (tombstonesById.get(tombstone.getTombstoneId()) == tombstone) {
+            tombstonesById.remove(tombstone.getTombstoneId());
+        }
+
+        ArrayDeque<PlayerTombstone> playerTombstones = tombstonesByPlayer.get(tombstone.getPlayerId());
+        if (playerTombstones != null && playerTombstones.remove(tombstone) && playerTombstones.isEmpty()) {
+            tombstonesByPlayer.remove(tombstone.getPlayerId());
+        }
+        return tombstone;
+    }
+
+    /**
+     * 批量查找一组方块中的墓碑
+     * 统一的批量查找方法，按区块分组查询空间索引
+     *
+     * @param world 世界
+     * @param blocks 方块集合，必须都在该世界中
+     * @return 以方块键为键的命中墓碑，见TombstoneSpatialIndex.blockKey
+     */
+    @NotNull
+    public LongObjectMap<PlayerTombstone> findTombstones(@NotNull World world, @NotNull Collection<Block> blocks) {
+        return activeTombstones.findTombstones(world, blocks);
+    }
+
+    /**
+     * 刷新按需注册的保护监听器
+     * 插件启动恢复墓碑时监听器管理器尚未创建，由其创建后统一刷新
+     */
+    private void refreshProtectionListeners() {
+        ProtectionListenerManager protectionListenerManager = plugin.getProtectionListenerManager();
+        if (protectionListenerManager != null) {
+            protectionListenerManager.refresh();
+        }
+    }
+
+    /**
+     * 获取有活跃墓碑的世界UID
+     *
+     * @return 只读的世界UID集合
+     */
+    @NotNull
+    public Set<UUID> getTombstoneWorldIds() {
+        return activeTombstones.getWorldIds();
     }
 
     /**
@@ -546,6 +787,99 @@ public class TombstoneManager {
         return activeTombstones.size();
     }
 
+    /**
+     * 获取等待区块加载后恢复的墓碑数量
+     *
+     * @return 等待恢复的墓碑数量
+     */
+    public int getPendingRestoreCount() {
+        int count = restoreQueue.size();
+        for (Map<Long, List<PlayerTombstone>> worldPending : pendingRestores.values()) {
+            for (List<PlayerTombstone> tombstones : worldPending.values()) {
+                count += tombstones.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 获取当前显示的全息图数量
+     * 只包含所在区块已加载的墓碑
+     *
+     * @return 全息图数量
+     */
+    public int getHologramCount() {
+        return hologramUtil.getHologramCount();
+    }
+
+    /**
+     * 获取当前运行的粒子效果数量
+     * 只包含所在区块已加载的墓碑
+     *
+     * @return 粒子效果数量
+     */
+    public int getParticleEffectCount() {
+        return particleUtil.getActiveEffectCount();
+    }
+
+    /**
+     * 获取附近有玩家、执行了视觉效果的累计次数
+     *
+     * @return 执行次数
+     */
+    public long getVisualActiveCount() {
+        return visibilityTracker.getActiveCount();
+    }
+
+    /**
+     * 获取附近没有玩家、跳过了视觉效果的累计次数
+     *
+     * @return 跳过次数
+     */
+    public long getVisualCulledCount() {
+        return visibilityTracker.getCulledCount();
+    }
+
+    /**
+     * 获取视觉效果等级控制器
+     * 统一的控制器获取方法
+     *
+     * @return 视觉效果等级控制器
+     */
+    @NotNull
+    public VisualLodController getVisualLodController() {
+        return lodController;
+    }
+
+    /**
+     * 获取引导跟踪器
+     * 统一的跟踪器获取方法
+     *
+     * @return 引导跟踪器
+     */
+    @NotNull
+    public GuidanceTracker getGuidanceTracker() {
+        return guidanceTracker;
+    }
+
+    /**
+     * 获取方块保护区块过滤器的检查次数
+     *
+     * @return 检查次数
+     */
+    public long getProtectionFilterChecks() {
+        return activeTombstones.getFilterChecks();
+    }
+
+    /**
+     * 获取方块保护区块过滤器直接排除的次数
+     *
+     * @return 排除次数
+     */
+    public long getProtectionFilterRejects() {
+        return activeTombstones.getFilterRejects();
+    }
+
     /**
      * 获取所有活跃墓碑
      * 统一的活跃墓碑获取方法
@@ -554,49 +888,139 @@ public class TombstoneManager {
      */
     @NotNull
     public Map<Location, PlayerTombstone> getActiveTombstones() {
-        return new HashMap<>(activeTombstones);
+        Map<Location, PlayerTombstone> result = new HashMap<>(activeTombstones.size() * 2);
+        activeTombstones.forEach(tombstone -> result.put(tombstone.getLocation(), tombstone));
+        return result;
     }
     
     /**
      * 获取墓碑ID从方块
-     * 统一的ID获取方法
+     * 统一的ID获取方法，只查询内存坐标索引，不读取方块PDC
+     * 索引之外的残留墓碑方块由实体清理任务处理，不在交互路径上识别
      *
      * @param block 方块
      * @return 墓碑ID，不存在返回null
      */
     @Nullable
     public Long getTombstoneId(@NotNull Block block) {
-        org.bukkit.block.BlockState state = block.getState();
-
-        // 根据Paper API，检查是否为TileState
-        if (state instanceof org.bukkit.block.TileState tileState) {
-            Long tombstoneId = tileState.getPersistentDataContainer().get(tombstoneKey, PersistentDataType.LONG);
-
+        PlayerTombstone tombstone = activeTombstones.get(block);
+        return tombstone != null ? tombstone.getTombstoneId() : null;
+    }
 
+    /**
+     * 获取配置的墓碑方块类型
+     *
+     * @return 墓碑方块类型
+     */
+    @NotNull
+    public Material getTombstoneMaterial() {
+        return tombstoneMaterial;
+    }
 
-            return tombstoneId;
+    /**
+     * 解析配置的墓碑方块类型
+     * 统一的方块类型解析方法，配置无效时使用CHEST
+     *
+     * @return 墓碑方块类型
+     */
+    @NotNull
+    private Material resolveTombstoneMaterial() {
+        String materialName = configManager.getString("tombstone.block-type", "CHEST");
+        try {
+            return Material.valueOf(materialName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("无效的墓碑方块类型: " + materialName + "，使用默认的CHEST");
+            return Material.CHEST;
         }
-        return null;
     }
     
     /**
-     * 加载玩家的墓碑列表
-     * 统一的墓碑加载方法
-     * 
+     * 获取玩家的墓碑列表
+     * 统一的墓碑列表方法，由内存中的玩家墓碑索引提供，按死亡时间从新到旧排列
+     *
      * @param playerId 玩家UUID
      * @return 墓碑数据列表
      */
     @NotNull
     public List<DataManager.TombstoneData> getPlayerTombstones(@NotNull UUID playerId) {
-        try {
-            return dataManager.getPlayerTombstones(playerId);
-        } catch (SQLException e) {
-            plugin.getLogger().severe("加载玩家墓碑时数据库错误: " + e.getMessage());
-            e.printStackTrace();
-            return List.of();
+        ArrayDeque<PlayerTombstone> tombstones = tombstonesByPlayer.get(playerId);
+        if (tombstones == null) {
+            return new ArrayList<>();
+        }
+
+        List<DataManager.TombstoneData> result = new ArrayList<>(tombstones.size());
+        Iterator<PlayerTombstone> iterator = tombstones.descendingIterator();
+        while (iterator.hasNext()) {
+            PlayerTombstone tombstone = iterator.next();
+            Location location = tombstone.getLocation();
+            result.add(new DataManager.TombstoneData(
+                tombstone.getTombstoneId(),
+                tombstone.getPlayerId(),
+                location.getWorld().getName(),
+                location.getBlockX(),
+                location.getBlockY(),
+                location.getBlockZ(),
+                tombstone.getDeathTime(),
+                tombstone.getProtectionExpire(),
+                tombstone.getDespawnTime(),
+                tombstone.getExperience()
+            ));
         }
+        return result;
     }
-    
+
+    /**
+     * 获取玩家在当前世界中最近的墓碑
+     * 统一的最近墓碑查找方法，由内存中的玩家墓碑索引提供，不查询数据库
+     *
+     * @param player 玩家
+     * @return 最近的墓碑，当前世界没有墓碑返回null
+     */
+    @Nullable
+    public PlayerTombstone getNearestTombstone(@NotNull Player player) {
+        ArrayDeque<PlayerTombstone> tombstones = tombstonesByPlayer.get(player.getUniqueId());
+        if (tombstones == null) {
+            return null;
+        }
+
+        Location playerLocation = player.getLocation();
+        World world = playerLocation.getWorld();
+        double playerX = playerLocation.getX();
+        double playerY = playerLocation.getY();
+        double playerZ = playerLocation.getZ();
+
+        PlayerTombstone nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (PlayerTombstone tombstone : tombstones) {
+            Location location = tombstone.getLocation();
+            if (tombstone.isRemoved() || location.getWorld() != world) {
+                continue;
+            }
+
+            double dx = location.getBlockX() + 0.5 - playerX;
+            double dy = location.getBlockY() + 0.5 - playerY;
+            double dz = location.getBlockZ() + 0.5 - playerZ;
+            double distance = dx * dx + dy * dy + dz * dz;
+            if (distance < nearestDistance) {
+                nearest = tombstone;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * 获取玩家的墓碑数量
+     * 统一的墓碑计数方法（包括尚未写入数据库的墓碑）
+     *
+     * @param playerId 玩家UUID
+     * @return 墓碑数量
+     */
+    public int getPlayerTombstoneCount(@NotNull UUID playerId) {
+        ArrayDeque<PlayerTombstone> tombstones = tombstonesByPlayer.get(playerId);
+        return tombstones == null ? 0 : tombstones.size();
+    }
+
     /**
      * 初始化管理器
      * 统一的初始化方法
@@ -605,8 +1029,11 @@ public class TombstoneManager {
         try {
             dataManager.initializeDatabase();
 
-            // 清理所有残留的墓碑实体
-            entityCleanupManager.cleanupAllTombstoneEntities();
+            // 启动异步写入队列
+            writeQueue.start();
+
+            // 后台分批回填旧数据，避免大表阻塞启动
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, dataManager::runBackfills);
 
             // 恢复服务器重启前的墓碑
             restoreTombstonesFromDatabase();
@@ -614,6 +1041,9 @@ public class TombstoneManager {
             // 启动定时清理任务
             startCleanupTask();
 
+            // 继续服务器重启前未完成的残留实体清理
+            plugin.getServer().getScheduler().runTask(plugin, entityCleanupManager::resumeSweep);
+
             plugin.getLogger().info("墓碑管理器初始化完成");
         } catch (SQLException e) {
             plugin.getLogger().severe("墓碑管理器初始化失败!");
@@ -624,39 +1054,36 @@ public class TombstoneManager {
     /**
      * 从数据库恢复墓碑
      * 统一的墓碑恢复方法
+     * 启动时只建立内存索引，方块、全息图和粒子效果在所在区块加载后按每tick预算恢复，不主动加载区块
      */
     private void restoreTombstonesFromDatabase() {
         try {
             List<DataManager.TombstoneData> allTombstones = dataManager.getAllTombstones();
+            long currentTime = System.currentTimeMillis();
             int restoredCount = 0;
             int expiredCount = 0;
 
-            for (DataManager.TombstoneData tombstoneData : allTombstones) {
-                // 检查墓碑是否已达到despawn-time，需要完全移除
-                long currentTime = System.currentTimeMillis();
+            // 数据库按死亡时间倒序返回，倒序遍历使玩家索引按从旧到新顺序追加
+            for (int i = allTombstones.size() - 1; i >= 0; i--) {
+                DataManager.TombstoneData tombstoneData = allTombstones.get(i);
+                World world = plugin.getServer().getWorld(tombstoneData.worldName());
+                Location location = world == null ? null
+                    : new Location(world, tombstoneData.x(), tombstoneData.y(), tombstoneData.z());
 
+                // 已达到despawn-time的墓碑不再恢复，由批量清理统一删除，方块在区块加载后移除
                 if (currentTime > tombstoneData.despawnTime()) {
-                    // 删除已达到despawn-time的墓碑
-                    dataManager.deleteTombstone(tombstoneData.id());
+                    if (location != null) {
+                        entityCleanupManager.registerOrphanBlock(location);
+                    }
                     expiredCount++;
                     continue;
                 }
 
-                // 恢复墓碑方块和数据
-                Location location = new Location(
-                    plugin.getServer().getWorld(tombstoneData.worldName()),
-                    tombstoneData.x(),
-                    tombstoneData.y(),
-                    tombstoneData.z()
-                );
-
-                // 检查世界是否存在
-                if (location.getWorld() == null) {
+                if (location == null) {
                     plugin.getLogger().warning("墓碑所在世界不存在，跳过恢复: " + tombstoneData.worldName());
                     continue;
                 }
 
-                // 创建墓碑实例
                 PlayerTombstone tombstone = new PlayerTombstone(
                     tombstoneData.playerUuid(),
                     location,
@@ -666,22 +1093,38 @@ public class TombstoneManager {
                     tombstoneData.experience(),
                     tombstoneData.id()
                 );
-
-                // 恢复墓碑方块
-                placeTombstoneBlock(location, tombstoneData.id(), tombstoneData.playerUuid());
+                tombstone.setPendingRestore(true);
 
                 // 添加到活跃墓碑列表
-                activeTombstones.put(location, tombstone);
+                addActiveTombstone(tombstone);
 
-                // 恢复全息图和粒子效果
-                hologramUtil.createHologram(tombstone);
-                particleUtil.createParticleEffect(tombstone);
+                // 所在区块已加载的直接排队，否则等待区块加载事件
+                if (world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                    restoreQueue.add(tombstone);
+                } else {
+                    addPendingRestore(tombstone);
+                }
 
                 restoredCount++;
             }
 
+            if (!restoreQueue.isEmpty()) {
+                startRestoreTask();
+            }
+
+            if (expiredCount > 0) {
+                plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+                    try {
+                        dataManager.cleanupExpiredTombstones(System.currentTimeMillis());
+                    } catch (SQLException e) {
+                        plugin.getLogger().severe("清理过期墓碑时数据库错误: " + e.getMessage());
+                    }
+                });
+            }
+
             if (restoredCount > 0 || expiredCount > 0) {
-                plugin.getLogger().info("墓碑恢复完成 - 恢复: " + restoredCount + " 个，清理过期: " + expiredCount + " 个");
+                plugin.getLogger().info("墓碑恢复完成 - 恢复: " + restoredCount + " 个 (立即放置: " + restoreQueue.size()
+                    + " 个)，清理过期: " + expiredCount + " 个");
             }
 
         } catch (SQLException e) {
@@ -690,6 +1133,226 @@ public class TombstoneManager {
         }
     }
 
+    /**
+     * 处理区块加载
+     * 统一的区块恢复入口，将该区块内等待恢复的墓碑加入恢复队列
+     *
+     * @param chunk 加载的区块
+     */
+    public void handleChunkLoad(@NotNull Chunk chunk) {
+        entityCleanupManager.handleChunkLoad(chunk);
+
+        // 已恢复过的墓碑方块随区块保存，只需在下一tick重新显示视觉效果
+        if (activeTombstones.hasTombstonesInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> showChunkVisuals(chunk));
+        }
+
+        Map<Long, List<PlayerTombstone>> worldPending = pendingRestores.get(chunk.getWorld().getName());
+        if (worldPending == null) {
+            return;
+        }
+
+        List<PlayerTombstone> tombstones = worldPending.remove(Chunk.getChunkKey(chunk.getX(), chunk.getZ()));
+        if (tombstones == null) {
+            return;
+        }
+        if (worldPending.isEmpty()) {
+            pendingRestores.remove(chunk.getWorld().getName());
+        }
+
+        // 区块加载事件中不直接修改方块，交给恢复任务在后续tick处理
+        restoreQueue.addAll(tombstones);
+        startRestoreTask();
+    }
+
+    /**
+     * 处理区块卸载
+     * 统一的视觉效果暂停入口，丢弃该区块内墓碑的全息图并停止粒子效果
+     *
+     * @param chunk 卸载的区块
+     */
+    public void handleChunkUnload(@NotNull Chunk chunk) {
+        if (!activeTombstones.hasTombstonesInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            return;
+        }
+
+        for (PlayerTombstone tombstone : activeTombstones.getTombstonesInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            hideVisuals(tombstone);
+        }
+    }
+
+    /**
+     * 重新显示区块内已恢复墓碑的视觉效果
+     *
+     * @param chunk 区块
+     */
+    private void showChunkVisuals(@NotNull Chunk chunk) {
+        if (!chunk.isLoaded()) {
+            return;
+        }
+
+        for (PlayerTombstone tombstone : activeTombstones.getTombstonesInChunk(chunk.getWorld(), chunk.getX(), chunk.getZ())) {
+            // 等待恢复的墓碑由恢复任务统一处理
+            if (!tombstone.isPendingRestore() && !tombstone.isRemoved()) {
+                showVisuals(tombstone);
+            }
+        }
+    }
+
+    /**
+     * 显示墓碑的全息图和粒子效果
+     * 统一的视觉效果创建方法，已显示的部分不会重复创建，效果关闭时不设置标记
+     *
+     * @param tombstone 墓碑实例
+     */
+    private void showVisuals(@NotNull PlayerTombstone tombstone) {
+        if (!tombstone.hasHologram()) {
+            tombstone.setHasHologram(hologramUtil.createHologram(tombstone));
+        }
+        if (!tombstone.hasParticles()) {
+            tombstone.setHasParticles(particleUtil.createParticleEffect(tombstone));
+        }
+    }
+
+    /**
+     * 丢弃墓碑的全息图并停止粒子效果
+     *
+     * @param tombstone 墓碑实例
+     */
+    private void hideVisuals(@NotNull PlayerTombstone tombstone) {
+        if (tombstone.hasHologram()) {
+            hologramUtil.removeHologram(tombstone.getLocation());
+            tombstone.setHasHologram(false);
+        }
+        if (tombstone.hasParticles()) {
+            particleUtil.removeParticleEffect(tombstone.getLocation());
+            tombstone.setHasParticles(false);
+        }
+    }
+
+    /**
+     * 添加等待恢复的墓碑到区块索引
+     *
+     * @param tombstone 墓碑实例
+     */
+    private void addPendingRestore(@NotNull PlayerTombstone tombstone) {
+        Location location = tombstone.getLocation();
+        pendingRestores
+            .computeIfAbsent(location.getWorld().getName(), world -> new HashMap<>())
+            .computeIfAbsent(Chunk.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4), key -> new ArrayList<>())
+            .add(tombstone);
+    }
+
+    /**
+     * 从区块索引移除等待恢复的墓碑
+     *
+     * @param tombstone 墓碑实例
+     */
+    private void removePendingRestore(@NotNull PlayerTombstone tombstone) {
+        tombstone.setPendingRestore(false);
+
+        Location location = tombstone.getLocation();
+        Map<Long, List<PlayerTombstone>> worldPending = pendingRestores.get(location.getWorld().getName());
+        if (worldPending == null) {
+            return;
+        }
+
+        long chunkKey = Chunk.getChunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+        List<PlayerTombstone> tombstones = worldPending.get(chunkKey);
+        if (tombstones != null && tombstones.remove(tombstone) && tombstones.isEmpty()) {
+            worldPending.remove(chunkKey);
+        }
+    }
+
+    /**
+     * 启动恢复任务
+     * 每tick最多恢复tombstone.restore-per-tick个墓碑，队列清空后自动停止
+     */
+    private void startRestoreTask() {
+        if (restoreTask != null && !restoreTask.isCancelled()) {
+            return;
+        }
+
+        int perTick = Math.max(1, configManager.getInt("tombstone.restore-per-tick", 20));
+        restoreTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
+            int restored = 0;
+            while (restored < perTick && !restoreQueue.isEmpty()) {
+                PlayerTombstone tombstone = restoreQueue.poll();
+                if (!tombstone.isPendingRestore() || tombstone.isRemoved()) {
+                    continue;
+                }
+
+                // 排队期间区块又被卸载，重新等待区块加载
+                Location location = tombstone.getLocation();
+                if (!location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                    addPendingRestore(tombstone);
+                    continue;
+                }
+
+                materializeTombstone(tombstone);
+                restored++;
+            }
+
+            if (restoreQueue.isEmpty()) {
+                restoreTask.cancel();
+                restoreTask = null;
+            }
+        }, 1L, 1L);
+    }
+
+    /**
+     * 恢复墓碑方块和视觉效果
+     * 统一的墓碑实体化方法
+     *
+     * @param tombstone 墓碑实例
+     */
+    private void materializeTombstone(@NotNull PlayerTombstone tombstone) {
+        Location location = tombstone.getLocation();
+        tombstone.setPendingRestore(false);
+
+        try {
+            // 恢复墓碑方块
+            placeTombstoneBlock(location, tombstone.getTombstoneId(), tombstone.getPlayerId());
+            tombstone.setHasSkull(true);
+
+            // 创建全息图和粒子效果
+            showVisuals(tombstone);
+        } catch (Exception e) {
+            plugin.getLogger().warning("恢复墓碑失败 ID: " + tombstone.getTombstoneId() + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * 重新读取缓存的配置
+     * 统一的配置重载方法，在插件重载后调用
+     */
+    public void reloadSettings() {
+        tombstoneMaterial = resolveTombstoneMaterial();
+        particleUtil.reloadSettings();
+        lodController.reloadSettings();
+        guidanceTracker.reloadSettings();
+        rebuildVisuals();
+    }
+
+    /**
+     * 重建已加载墓碑的视觉效果
+     * 配置重载后按新设置重新创建全息图和粒子效果，开关变化时补建或移除
+     */
+    private void rebuildVisuals() {
+        for (PlayerTombstone tombstone : activeTombstones.values()) {
+            if (tombstone.isPendingRestore() || tombstone.isRemoved()) {
+                continue;
+            }
+
+            hideVisuals(tombstone);
+            Location location = tombstone.getLocation();
+            World world = location.getWorld();
+            if (world != null && world.isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                showVisuals(tombstone);
+            }
+        }
+    }
+
     /**
      * 关闭管理器
      * 统一的关闭方法
@@ -699,13 +1362,27 @@ public class TombstoneManager {
         if (cleanupTask != null) {
             cleanupTask.cancel();
         }
+        entityCleanupManager.suspendSweep();
+        if (restoreTask != null) {
+            restoreTask.cancel();
+            restoreTask = null;
+        }
+        restoreQueue.clear();
+        pendingRestores.clear();
 
         // 关闭全息图和粒子效果系统
         hologramUtil.shutdown();
         particleUtil.shutdown();
+        guidanceTracker.shutdown();
+        visibilityTracker.shutdown();
+        lodController.shutdown();
 
+        // 写完队列中剩余的墓碑后再关闭数据库
+        writeQueue.shutdown();
         dataManager.closeDatabase();
         activeTombstones.clear();
+        tombstonesById.clear();
+        tombstonesByPlayer.clear();
         plugin.getLogger().info("墓碑管理器已关闭");
     }
 
@@ -724,14 +1401,15 @@ public class TombstoneManager {
         cleanupTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
             try {
                 long currentTime = System.currentTimeMillis();
-                int cleanedCount = dataManager.cleanupExpiredTombstones(currentTime);
+                List<Long> expiredIds = dataManager.cleanupExpiredTombstones(currentTime);
 
-                if (cleanedCount > 0) {
-                    plugin.getLogger().info("定时清理完成 - 清理了 " + cleanedCount + " 个过期墓碑");
+                if (!expiredIds.isEmpty()) {
+                    plugin.getLogger().info("定时清理完成 - 清理了 " + expiredIds.size() + " 个过期墓碑");
                 }
 
                 // 同步更新活跃墓碑列表和完整性检查
                 plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    removeExpiredTombstones(expiredIds);
                     updateActiveTombstones();
                     checkAndCleanupIncompleteTombstones();
                 });
@@ -745,6 +1423,21 @@ public class TombstoneManager {
         plugin.getLogger().info("定时清理任务已启动 - 间隔: " + cleanupInterval + " 小时");
     }
 
+    /**
+     * 移除已从数据库删除的墓碑实例
+     * 统一的内存对账方法，通过ID索引逐个定位，不再访问数据库
+     *
+     * @param expiredIds 已删除的墓碑ID列表
+     */
+    private void removeExpiredTombstones(@NotNull List<Long> expiredIds) {
+        for (long tombstoneId : expiredIds) {
+            PlayerTombstone tombstone = tombstonesById.get(tombstoneId);
+            if (tombstone != null) {
+                removeTombstoneInternal(tombstone.getLocation(), tombstone, false);
+            }
+        }
+    }
+
     /**
      * 检查并清理不完整的墓碑实例
      * 统一的完整性检查和清理方法
@@ -753,12 +1446,11 @@ public class TombstoneManager {
         List<Location> incompleteLocations = new ArrayList<>();
 
         // 检查所有活跃墓碑的完整性
-        for (Map.Entry<Location, PlayerTombstone> entry : activeTombstones.entrySet()) {
-            Location location = entry.getKey();
-            PlayerTombstone tombstone = entry.getValue();
+        for (PlayerTombstone tombstone : activeTombstones.values()) {
+            Location location = tombstone.getLocation();
 
-            // 检查墓碑实例是否完整
-            if (!tombstone.isComplete()) {
+            // 检查墓碑实例是否完整（等待区块加载的墓碑尚未放置方块）
+            if (!tombstone.isPendingRestore() && !tombstone.isComplete()) {
                 incompleteLocations.add(location);
                 plugin.getLogger().info("发现不完整的墓碑实例，位置: " +
                     location.getWorld().getName() + " " + location.getBlockX() +
@@ -789,12 +1481,11 @@ public class TombstoneManager {
         List<Location> expiredLocations = new ArrayList<>();
 
         // 先找出所有过期的墓碑位置
-        for (Map.Entry<Location, PlayerTombstone> entry : activeTombstones.entrySet()) {
-            Location location = entry.getKey();
-            PlayerTombstone tombstone = entry.getValue();
+        for (PlayerTombstone tombstone : activeTombstones.values()) {
+            Location location = tombstone.getLocation();
 
             // 使用墓碑实例的精确despawn检查方法
-            if (tombstone.shouldDespawn() || !tombstone.isComplete()) {
+            if (tombstone.shouldDespawn() || (!tombstone.isPendingRestore() && !tombstone.isComplete())) {
                 expiredLocations.add(location);
             }
         }
@@ -812,10 +1503,11 @@ public class TombstoneManager {
                         "," + location.getBlockY() + "," + location.getBlockZ() +
                         " - " + e.getMessage());
 
-                    // 即使出错也要尝试清理实体
+                    // 即使出错也要尝试清理方块和已记录的全息图
                     try {
-                        entityCleanupManager.cleanupTombstoneEntitiesAt(location);
-                        activeTombstones.remove(location);
+                        hologramUtil.removeHologram(location);
+                        entityCleanupManager.cleanupTombstoneBlockAt(location);
+                        removeActiveTombstone(location);
                     } catch (Exception cleanupError) {
                         plugin.getLogger().severe("强制清理墓碑实体失败: " + cleanupError.getMessage());
                     }
@@ -0,0 +1,240 @@
+package cn.i7mc.managers;
+
+import cn.i7mc.PlayerDeadManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 墓碑写入队列 - 异步批量持久化墓碑数据
+ * 死亡事件只负责入队，由独立的持久化线程合并为批量事务提交
+ * 队列已满时请求进入溢出队列，由持久化线程继续处理，主线程不会等待或同步写入
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class TombstoneWriteQueue {
+
+    private final PlayerDeadManager plugin;
+    private final DataManager dataManager;
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<PendingWrite> queue;
+    // 队列已满时的溢出请求
+    private final ConcurrentLinkedQueue<PendingWrite> overflow;
+    // 插件关闭期间完成的回调，等待持久化线程结束后在关闭线程执行
+    private final ConcurrentLinkedQueue<Runnable> deferredCallbacks;
+    private Thread worker;
+    private volatile boolean running;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     * @param configManager 配置管理器
+     * @param dataManager 数据管理器
+     */
+    public TombstoneWriteQueue(@NotNull PlayerDeadManager plugin, @NotNull ConfigManager configManager,
+                               @NotNull DataManager dataManager) {
+        this.plugin = plugin;
+        this.dataManager = dataManager;
+        this.enabled = configManager.getBoolean("database.write-behind.enabled", true);
+        this.batchSize = Math.max(1, configManager.getInt("database.write-behind.batch-size", 32));
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, configManager.getInt("database.write-behind.queue-capacity", 256)));
+        this.overflow = new ConcurrentLinkedQueue<>();
+        this.deferredCallbacks = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * 启动持久化线程
+     * 统一的队列启动方法
+     */
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::processQueue, "PlayerDeadManager-Persistence");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 提交墓碑写入请求
+     * 不会阻塞调用线程，队列已满时放入溢出队列
+     *
+     * @param write 墓碑写入数据
+     * @param onSuccess 写入成功回调（主线程执行，参数为数据库ID）
+     * @param onFailure 写入失败回调（主线程执行）
+     */
+    public void submit(@NotNull DataManager.TombstoneWrite write, @NotNull LongConsumer onSuccess,
+                       @NotNull Consumer<SQLException> onFailure) {
+        PendingWrite pendingWrite = new PendingWrite(write, onSuccess, onFailure);
+
+        if (running) {
+            if (!queue.offer(pendingWrite)) {
+                if (overflow.isEmpty()) {
+                    plugin.getLogger().warning("墓碑写入队列已满，超出的请求进入溢出队列");
+                }
+                overflow.add(pendingWrite);
+            }
+            return;
+        }
+
+        // 未启用或未运行时同步写入，回调直接在调用线程执行
+        flush(List.of(pendingWrite), false);
+    }
+
+    /**
+     * 持久化线程主循环
+     * 取出首个请求后尽量合并后续请求为一个批次，队列取空后继续处理溢出请求
+     */
+    private void processQueue() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty() || !overflow.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll();
+                if (first == null) {
+                    first = overflow.poll();
+                }
+                if (first == null) {
+                    first = queue.poll(500, TimeUnit.MILLISECONDS);
+                }
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                PendingWrite next;
+                while (batch.size() < batchSize && (next = overflow.poll()) != null) {
+                    batch.add(next);
+                }
+                flush(batch, true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                plugin.getLogger().severe("持久化线程处理墓碑写入时发生错误: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 写入一个批次
+     * 批量事务失败时逐条重试，避免单条坏数据拖累整个批次
+     *
+     * @param batch 待写入批次
+     * @param async 是否在持久化线程中执行
+     */
+    private void flush(@NotNull List<PendingWrite> batch, boolean async) {
+        List<DataManager.TombstoneWrite> writes = new ArrayList<>(batch.size());
+        for (PendingWrite pendingWrite : batch) {
+            writes.add(pendingWrite.write());
+        }
+
+        try {
+            long[] ids = dataManager.saveTombstones(writes);
+            for (int i = 0; i < batch.size(); i++) {
+                PendingWrite pendingWrite = batch.get(i);
+                long id = ids[i];
+                deliver(() -> pendingWrite.onSuccess().accept(id), async);
+            }
+            return;
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                plugin.getLogger().severe("写入墓碑数据失败: " + e.getMessage());
+                deliver(() -> batch.get(0).onFailure().accept(e), async);
+                return;
+            }
+            plugin.getLogger().warning("批量写入墓碑数据失败，改为逐条写入: " + e.getMessage());
+        }
+
+        for (PendingWrite pendingWrite : batch) {
+            flush(List.of(pendingWrite), async);
+        }
+    }
+
+    /**
+     * 投递回调
+     * 异步写入的回调切回主线程，插件关闭期间暂存，等持久化线程结束后由关闭线程执行
+     *
+     * @param callback 回调
+     * @param async 是否在持久化线程中执行
+     */
+    private void deliver(@NotNull Runnable callback, boolean async) {
+        if (!async) {
+            callback.run();
+        } else if (plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, callback);
+        } else {
+            deferredCallbacks.add(callback);
+        }
+    }
+
+    /**
+     * 关闭写入队列
+     * 等待持久化线程写完剩余请求，超时后在当前线程同步写入
+     * 暂存的回调在持久化线程结束后于当前线程执行
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Runnable callback;
+        while ((callback = deferredCallbacks.poll()) != null) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("执行墓碑写入回调时发生错误: " + e.getMessage());
+            }
+        }
+
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.addAll(overflow);
+        overflow.clear();
+        if (!remaining.isEmpty()) {
+            plugin.getLogger().warning("持久化线程未及时结束，同步写入剩余 " + remaining.size() + " 个墓碑");
+            flush(remaining, false);
+        }
+    }
+
+    /**
+     * 获取等待写入的请求数量
+     *
+     * @return 等待写入数量
+     */
+    public int getPendingCount() {
+        return queue.size() + overflow.size();
+    }
+
+    /**
+     * 待写入请求记录类
+     */
+    private record PendingWrite(
+        DataManager.TombstoneWrite write,
+        LongConsumer onSuccess,
+        Consumer<SQLException> onFailure
+    ) {}
+}
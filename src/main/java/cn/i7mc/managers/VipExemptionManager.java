@@ -4,9 +4,6 @@ import cn.i7mc.PlayerDeadManager;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
@@ -195,23 +192,7 @@ public class VipExemptionManager {
      * @throws SQLException 数据库异常
      */
     private int getExemptionUsageFromDatabase(@NotNull UUID playerId) throws SQLException {
-        String query = """
-            SELECT used_count FROM player_exemptions
-            WHERE player_uuid = ? AND exemption_date = ?
-        """;
-
-        try (PreparedStatement stmt = dataManager.getConnection().prepareStatement(query)) {
-            stmt.setString(1, playerId.toString());
-            stmt.setString(2, getTodayDateString());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("used_count");
-                }
-            }
-        }
-
-        return 0; // 今日未使用过
+        return dataManager.getExemptionUsage(playerId, getTodayDateString());
     }
     
     /**
@@ -223,25 +204,11 @@ public class VipExemptionManager {
      */
     private void incrementExemptionUsage(@NotNull Player player) throws SQLException {
         UUID playerId = player.getUniqueId();
-        String today = getTodayDateString();
+        dataManager.incrementExemptionUsage(playerId, getTodayDateString());
 
-        // SQLite使用INSERT OR REPLACE语法
-        String upsertQuery = """
-            INSERT OR REPLACE INTO player_exemptions (player_uuid, exemption_date, used_count)
-            VALUES (?, ?, COALESCE((SELECT used_count FROM player_exemptions WHERE player_uuid = ? AND exemption_date = ?), 0) + 1)
-        """;
-
-        try (PreparedStatement stmt = dataManager.getConnection().prepareStatement(upsertQuery)) {
-            stmt.setString(1, playerId.toString());
-            stmt.setString(2, today);
-            stmt.setString(3, playerId.toString());
-            stmt.setString(4, today);
-            stmt.executeUpdate();
-
-            // 更新缓存
-            int currentUsage = dailyExemptionUsage.getOrDefault(playerId, 0);
-            dailyExemptionUsage.put(playerId, currentUsage + 1);
-        }
+        // 更新缓存
+        int currentUsage = dailyExemptionUsage.getOrDefault(playerId, 0);
+        dailyExemptionUsage.put(playerId, currentUsage + 1);
     }
     
     /**
@@ -276,21 +243,12 @@ public class VipExemptionManager {
      */
     public void cleanupExpiredExemptions() {
         try {
-            String deleteQuery = """
-                DELETE FROM player_exemptions
-                WHERE exemption_date < ?
-            """;
-
             // 删除7天前的记录
             String cutoffDate = LocalDate.now().minusDays(7).format(DateTimeFormatter.ISO_LOCAL_DATE);
+            int deletedRows = dataManager.deleteExemptionsBefore(cutoffDate);
 
-            try (PreparedStatement stmt = dataManager.getConnection().prepareStatement(deleteQuery)) {
-                stmt.setString(1, cutoffDate);
-                int deletedRows = stmt.executeUpdate();
-
-                if (deletedRows > 0) {
-                    plugin.getLogger().info("清理了 " + deletedRows + " 条过期的豁免记录");
-                }
+            if (deletedRows > 0) {
+                plugin.getLogger().info("清理了 " + deletedRows + " 条过期的豁免记录");
             }
         } catch (SQLException e) {
             plugin.getLogger().warning("清理过期豁免记录失败: " + e.getMessage());
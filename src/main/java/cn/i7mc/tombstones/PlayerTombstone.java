@@ -19,13 +19,14 @@ import java.util.UUID;
  */
 public class PlayerTombstone extends AbstractTombstone {
 
-    private final long tombstoneId;
+    private long tombstoneId; // 未持久化时为负数的临时ID
     private final long despawnTime;
     private boolean isRemoved;
     private int currentExperience; // 可变的经验值，用于覆盖父类的final字段
     private boolean hasHologram; // 是否有全息图
     private boolean hasParticles; // 是否有粒子效果
     private boolean hasSkull; // 是否有头颅方块
+    private boolean pendingRestore; // 是否等待所在区块加载后恢复
     
     /**
      * 构造函数
@@ -36,7 +37,7 @@ public class PlayerTombstone extends AbstractTombstone {
      * @param protectionExpire 保护过期时间戳
      * @param despawnTime 消失时间戳
      * @param experience 存储的经验值
-     * @param tombstoneId 数据库中的墓碑ID
+     * @param tombstoneId 数据库中的墓碑ID（未持久化时为临时ID）
      */
     public PlayerTombstone(@NotNull UUID playerId, @NotNull Location location,
                           long deathTime, long protectionExpire, long despawnTime,
@@ -119,12 +120,31 @@ public class PlayerTombstone extends AbstractTombstone {
     /**
      * 获取数据库中的墓碑ID
      *
-     * @return 墓碑ID
+     * @return 墓碑ID，未持久化时为负数的临时ID
      */
     public long getTombstoneId() {
         return tombstoneId;
     }
 
+    /**
+     * 设置持久化后的数据库ID
+     * 统一的ID回填方法，由异步写入完成回调调用
+     *
+     * @param tombstoneId 数据库中的墓碑ID
+     */
+    public void assignTombstoneId(long tombstoneId) {
+        this.tombstoneId = tombstoneId;
+    }
+
+    /**
+     * 检查墓碑是否已写入数据库
+     *
+     * @return 是否已持久化
+     */
+    public boolean isPersisted() {
+        return tombstoneId > 0;
+    }
+
     /**
      * 获取消失时间戳
      *
@@ -201,6 +221,35 @@ public class PlayerTombstone extends AbstractTombstone {
         return hasSkull;
     }
 
+    /**
+     * 设置头颅方块状态
+     * 统一的方块状态管理方法，由TombstoneManager放置方块后调用
+     *
+     * @param hasSkull 是否有头颅方块
+     */
+    public void setHasSkull(boolean hasSkull) {
+        this.hasSkull = hasSkull;
+    }
+
+    /**
+     * 检查墓碑是否等待恢复
+     * 等待恢复的墓碑只存在于内存索引中，方块和全息图尚未放置
+     *
+     * @return 是否等待恢复
+     */
+    public boolean isPendingRestore() {
+        return pendingRestore;
+    }
+
+    /**
+     * 设置墓碑等待恢复状态
+     *
+     * @param pendingRestore 是否等待恢复
+     */
+    public void setPendingRestore(boolean pendingRestore) {
+        this.pendingRestore = pendingRestore;
+    }
+
     /**
      * 检查墓碑整体实例是否完整
      * 统一的完整性检查方法
@@ -229,6 +278,7 @@ public class PlayerTombstone extends AbstractTombstone {
      */
     public void markAsRemoved() {
         this.isRemoved = true;
+        this.pendingRestore = false;
         this.hasSkull = false;
         this.hasHologram = false;
         this.hasParticles = false;
@@ -0,0 +1,378 @@
+package cn.i7mc.tombstones;
+
+import cn.i7mc.utils.LongObjectMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 墓碑空间索引 - 按世界、区块分组，以压缩的long方块坐标为键
+ * 查询时不创建Location对象，供高频方块事件快速判断是否为墓碑位置，非线程安全
+ * 另维护一个区块计数过滤器（不区分世界），没有墓碑的区块只需一次数组读取即可排除
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class TombstoneSpatialIndex {
+
+    /**
+     * 区块过滤器槽位数量（2的幂）
+     */
+    private static final int FILTER_SIZE = 1 << 14;
+
+    private final Map<UUID, LongObjectMap<LongObjectMap<PlayerTombstone>>> worlds = new HashMap<>();
+    private final int[] chunkFilter = new int[FILTER_SIZE];
+    private final LongAdder filterChecks = new LongAdder();
+    private final LongAdder filterRejects = new LongAdder();
+    private int size;
+
+    /**
+     * 添加墓碑
+     * 同一位置已有墓碑时会被替换
+     *
+     * @param tombstone 墓碑实例
+     * @return 被替换的墓碑，不存在返回null
+     */
+    @Nullable
+    public PlayerTombstone put(@NotNull PlayerTombstone tombstone) {
+        Location location = tombstone.getLocation();
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+
+        LongObjectMap<LongObjectMap<PlayerTombstone>> chunks =
+            worlds.computeIfAbsent(location.getWorld().getUID(), uid -> new LongObjectMap<>());
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        LongObjectMap<PlayerTombstone> blocks = chunks.get(chunkKey);
+        if (blocks == null) {
+            blocks = new LongObjectMap<>(4);
+            chunks.put(chunkKey, blocks);
+            chunkFilter[filterSlot(x >> 4, z >> 4)]++;
+        }
+
+        PlayerTombstone previous = blocks.put(blockKey(x, location.getBlockY(), z), tombstone);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * 移除墓碑
+     * 只有索引中该位置的实例与参数相同时才会移除
+     *
+     * @param tombstone 墓碑实例
+     * @return 是否移除成功
+     */
+    public boolean remove(@NotNull PlayerTombstone tombstone) {
+        Location location = tombstone.getLocation();
+        World world = location.getWorld();
+        if (world == null) {
+            return false;
+        }
+
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+        LongObjectMap<LongObjectMap<PlayerTombstone>> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return false;
+        }
+
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        LongObjectMap<PlayerTombstone> blocks = chunks.get(chunkKey);
+        if (blocks == null) {
+            return false;
+        }
+
+        long blockKey = blockKey(x, location.getBlockY(), z);
+        if (blocks.get(blockKey) != tombstone) {
+            return false;
+        }
+
+        blocks.remove(blockKey);
+        size--;
+        if (blocks.isEmpty()) {
+            chunks.remove(chunkKey);
+            chunkFilter[filterSlot(x >> 4, z >> 4)]--;
+            if (chunks.isEmpty()) {
+                worlds.remove(world.getUID());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取指定坐标的墓碑
+     *
+     * @param world 世界
+     * @param x 方块X坐标
+     * @param y 方块Y坐标
+     * @param z 方块Z坐标
+     * @return 墓碑实例，不存在返回null
+     */
+    @Nullable
+    public PlayerTombstone get(@NotNull World world, int x, int y, int z) {
+        if (chunkFilter[filterSlot(x >> 4, z >> 4)] == 0) {
+            return null;
+        }
+
+        LongObjectMap<LongObjectMap<PlayerTombstone>> chunks = worlds.get(world.getUID());
+        if (chunks == null) {
+            return null;
+        }
+
+        LongObjectMap<PlayerTombstone> blocks = chunks.get(chunkKey(x >> 4, z >> 4));
+        return blocks == null ? null : blocks.get(blockKey(x, y, z));
+    }
+
+    /**
+     * 检查指定坐标是否有墓碑
+     * 不分配任何对象的快速判断方法
+     *
+     * @param world 世界
+     * @param x 方块X坐标
+     * @param y 方块Y坐标
+     * @param z 方块Z坐标
+     * @return 是否有墓碑
+     */
+    public boolean contains(@NotNull World world, int x, int y, int z) {
+        filterChecks.increment();
+        if (chunkFilter[filterSlot(x >> 4, z >> 4)] == 0) {
+            filterRejects.increment();
+            return false;
+        }
+        return get(world, x, y, z) != null;
+    }
+
+    /**
+     * 获取方块位置的墓碑
+     *
+     * @param block 方块
+     * @return 墓碑实例，不存在返回null
+     */
+    @Nullable
+    public PlayerTombstone get(@NotNull Block block) {
+        return get(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * 获取位置的墓碑
+     *
+     * @param location 位置
+     * @return 墓碑实例，不存在返回null
+     */
+    @Nullable
+    public PlayerTombstone get(@NotNull Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return get(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * 检查区块内是否有墓碑
+     *
+     * @param world 世界
+     * @param chunkX 区块X坐标
+     * @param chunkZ 区块Z坐标
+     * @return 是否有墓碑
+     */
+    public boolean hasTombstonesInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        if (chunkFilter[filterSlot(chunkX, chunkZ)] == 0) {
+            return false;
+        }
+
+        LongObjectMap<LongObjectMap<PlayerTombstone>> chunks = worlds.get(world.getUID());
+        return chunks != null && chunks.containsKey(chunkKey(chunkX, chunkZ));
+    }
+
+    /**
+     * 获取区块内的墓碑
+     *
+     * @param world 世界
+     * @param chunkX 区块X坐标
+     * @param chunkZ 区块Z坐标
+     * @return 墓碑列表
+     */
+    @NotNull
+    public List<PlayerTombstone> getTombstonesInChunk(@NotNull World world, int chunkX, int chunkZ) {
+        List<PlayerTombstone> result = new ArrayList<>();
+        LongObjectMap<LongObjectMap<PlayerTombstone>> chunks = worlds.get(world.getUID());
+        if (chunks != null) {
+            LongObjectMap<PlayerTombstone> blocks = chunks.get(chunkKey(chunkX, chunkZ));
+            if (blocks != null) {
+                blocks.forEachValue(result::add);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 批量查找一组方块中的墓碑
+     * 按区块分组，每个区块只查询一次，没有墓碑的区块由过滤器直接排除，用于爆炸等大批量方块事件
+     *
+     * @param world 世界
+     * @param blocks 方块集合，必须都在该世界中
+     * @return 以方块键为键的命中墓碑，没有命中时为空映射
+     */
+    @NotNull
+    public LongObjectMap<PlayerTombstone> findTombstones(@NotNull World world, @NotNull Collection<Block> blocks) {
+        LongObjectMap<LongObjectMap<PlayerTombstone>> chunks = worlds.get(world.getUID());
+        if (chunks == null || blocks.isEmpty()) {
+            return new LongObjectMap<>(0);
+        }
+
+        // 记录已查询过的区块，无墓碑的区块也要记录，避免同一区块重复查询
+        LongObjectMap<LongObjectMap<PlayerTombstone>> visited = new LongObjectMap<>();
+        LongObjectMap<PlayerTombstone> empty = new LongObjectMap<>(0);
+        LongObjectMap<PlayerTombstone> result = new LongObjectMap<>(0);
+
+        for (Block block : blocks) {
+            int x = block.getX();
+            int z = block.getZ();
+            int chunkX = x >> 4;
+            int chunkZ = z >> 4;
+            long chunkKey = chunkKey(chunkX, chunkZ);
+
+            LongObjectMap<PlayerTombstone> chunkBlocks = visited.get(chunkKey);
+            if (chunkBlocks == null) {
+                chunkBlocks = chunkFilter[filterSlot(chunkX, chunkZ)] == 0 ? null : chunks.get(chunkKey);
+                if (chunkBlocks == null) {
+                    chunkBlocks = empty;
+                }
+                visited.put(chunkKey, chunkBlocks);
+            }
+            if (chunkBlocks.isEmpty()) {
+                continue;
+            }
+
+            long blockKey = blockKey(x, block.getY(), z);
+            PlayerTombstone tombstone = chunkBlocks.get(blockKey);
+            if (tombstone != null) {
+                result.put(blockKey, tombstone);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 遍历所有墓碑
+     * 遍历期间不能修改索引，需要移除时先复制到列表
+     *
+     * @param action 处理方法
+     */
+    public void forEach(@NotNull Consumer<PlayerTombstone> action) {
+        for (LongObjectMap<LongObjectMap<PlayerTombstone>> chunks : worlds.values()) {
+            chunks.forEachValue(blocks -> blocks.forEachValue(action));
+        }
+    }
+
+    /**
+     * 复制所有墓碑到列表
+     *
+     * @return 墓碑列表
+     */
+    @NotNull
+    public List<PlayerTombstone> values() {
+        List<PlayerTombstone> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * 获取有墓碑的世界UID
+     *
+     * @return 只读的世界UID集合视图
+     */
+    @NotNull
+    public Set<UUID> getWorldIds() {
+        return Collections.unmodifiableSet(worlds.keySet());
+    }
+
+    /**
+     * 获取墓碑数量
+     *
+     * @return 墓碑数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        worlds.clear();
+        Arrays.fill(chunkFilter, 0);
+        size = 0;
+    }
+
+    /**
+     * 获取过滤器检查次数
+     *
+     * @return 检查次数
+     */
+    public long getFilterChecks() {
+        return filterChecks.sum();
+    }
+
+    /**
+     * 获取过滤器直接排除的次数
+     *
+     * @return 排除次数
+     */
+    public long getFilterRejects() {
+        return filterRejects.sum();
+    }
+
+    /**
+     * 计算区块过滤器槽位
+     *
+     * @param chunkX 区块X坐标
+     * @param chunkZ 区块Z坐标
+     * @return 槽位索引
+     */
+    private static int filterSlot(int chunkX, int chunkZ) {
+        int hash = chunkX * 0x9E3779B1 + chunkZ * 0x85EBCA77;
+        return (hash ^ (hash >>> 16)) & (FILTER_SIZE - 1);
+    }
+
+    /**
+     * 计算区块键
+     * 与Paper的Chunk.getChunkKey保持一致
+     *
+     * @param chunkX 区块X坐标
+     * @param chunkZ 区块Z坐标
+     * @return 区块键
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+
+    /**
+     * 计算方块键
+     * X、Z各占26位，Y占12位，覆盖原版世界的全部坐标范围
+     *
+     * @param x 方块X坐标
+     * @param y 方块Y坐标
+     * @param z 方块Z坐标
+     * @return 方块键
+     */
+    public static long blockKey(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+}
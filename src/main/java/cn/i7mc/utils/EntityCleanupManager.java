@@ -3,20 +3,23 @@ package cn.i7mc.utils;
 import cn.i7mc.PlayerDeadManager;
 import cn.i7mc.managers.ConfigManager;
 import cn.i7mc.managers.MessageManager;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.TileState;
-import org.bukkit.entity.ArmorStand;
 import org.bukkit.entity.Entity;
 import org.bukkit.persistence.PersistentDataType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * 实体清理管理器 - 统一处理墓碑相关实体的清理和管理
@@ -32,6 +35,10 @@ public class EntityCleanupManager {
     private final MessageManager messageManager;
     private final NamespacedKey tombstoneKey;
     private final NamespacedKey hologramKey;
+    // 已从数据库删除、等待区块加载后移除的墓碑方块，按世界和区块分组
+    private final Map<String, Map<Long, List<Location>>> orphanBlocks;
+    // 正在运行的分片清理任务
+    private EntityCleanupSweep sweep;
     
     /**
      * 构造函数
@@ -48,114 +55,164 @@ public class EntityCleanupManager {
         this.messageManager = messageManager;
         this.tombstoneKey = new NamespacedKey(plugin, "tombstone_id");
         this.hologramKey = new NamespacedKey(plugin, "pdm_hologram");
+        this.orphanBlocks = new HashMap<>();
     }
-    
+
+    /**
+     * 处理实体加载
+     * 统一的残留全息图清理入口，移除旧版本保存到区块文件的全息图
+     * 当前版本创建的全息图都不会保存，加载出来的持久化全息图一定是残留
+     *
+     * @param entities 加载的实体
+     */
+    public void handleEntitiesLoad(@NotNull List<Entity> entities) {
+        for (Entity entity : entities) {
+            if (isLegacyHologram(entity)) {
+                entity.remove();
+            }
+        }
+    }
+
     /**
-     * 清理所有残留的墓碑实体
-     * 统一的实体清理方法
+     * 登记残留的墓碑方块
+     * 所在区块已加载时立即移除，否则在区块加载后移除
+     *
+     * @param location 墓碑位置
      */
-    public void cleanupAllTombstoneEntities() {
-        int cleanedBlocks = 0;
-        int cleanedHolograms = 0;
+    public void registerOrphanBlock(@NotNull Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
 
-        // 清理所有世界中的残留实体
-        for (World world : plugin.getServer().getWorlds()) {
-            cleanedBlocks += cleanupTombstoneBlocks(world);
-            cleanedHolograms += cleanupHologramEntities(world);
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        if (world.isChunkLoaded(chunkX, chunkZ)) {
+            removeOrphanBlock(location);
+            return;
         }
 
-        // 输出清理结果
-        if (cleanedBlocks > 0 || cleanedHolograms > 0) {
-            // 使用消息管理器输出日志消息
-            java.util.Map<String, String> placeholders = messageManager.createPlaceholders();
-            placeholders.put("blocks", String.valueOf(cleanedBlocks));
-            placeholders.put("holograms", String.valueOf(cleanedHolograms));
+        orphanBlocks.computeIfAbsent(world.getName(), name -> new HashMap<>())
+            .computeIfAbsent(Chunk.getChunkKey(chunkX, chunkZ), key -> new ArrayList<>())
+            .add(location);
+    }
 
-            String logMessage = messageManager.getMessage("logs.cleanup.entity-cleanup-completed", placeholders);
-            if (logMessage != null) {
-                plugin.getLogger().info(logMessage);
-            } else {
-                plugin.getLogger().info("实体清理完成 - 清理方块: " + cleanedBlocks + " 个，清理全息图: " + cleanedHolograms + " 个");
+    /**
+     * 处理区块加载
+     * 统一的残留方块清理入口，区块加载事件中不直接修改方块，在下一tick移除
+     *
+     * @param chunk 加载的区块
+     */
+    public void handleChunkLoad(@NotNull Chunk chunk) {
+        Map<Long, List<Location>> worldOrphans = orphanBlocks.get(chunk.getWorld().getName());
+        if (worldOrphans == null) {
+            return;
+        }
+
+        List<Location> locations = worldOrphans.remove(Chunk.getChunkKey(chunk.getX(), chunk.getZ()));
+        if (locations == null) {
+            return;
+        }
+        if (worldOrphans.isEmpty()) {
+            orphanBlocks.remove(chunk.getWorld().getName());
+        }
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            for (Location location : locations) {
+                removeOrphanBlock(location);
             }
+        });
+    }
+
+    /**
+     * 移除残留的墓碑方块
+     * 只移除仍带有墓碑标记的方块
+     *
+     * @param location 墓碑位置
+     */
+    private void removeOrphanBlock(@NotNull Location location) {
+        Block block = location.getBlock();
+        if (isTombstoneBlock(block)) {
+            block.setType(Material.AIR);
         }
     }
-    
+
     /**
-     * 清理指定世界中的墓碑方块
-     * 统一的方块清理方法
+     * 启动残留实体清理任务
+     * 统一的实体清理方法，按区块分片执行，避免一次性扫描所有区块造成卡顿
      *
-     * @param world 世界
-     * @return 清理的方块数量
+     * @param requesterId 发起清理的玩家UUID，控制台发起为null
+     * @return 是否已启动，已有清理任务在运行时返回false
      */
-    private int cleanupTombstoneBlocks(@NotNull World world) {
-        int cleanedCount = 0;
-        List<Block> blocksToClean = new ArrayList<>();
+    public boolean startSweep(@Nullable UUID requesterId) {
+        if (sweep != null) {
+            return false;
+        }
 
-        // 遍历世界中的所有加载区块
-        for (org.bukkit.Chunk chunk : world.getLoadedChunks()) {
-            try {
-                // 安全获取区块的方块实体，避免异步访问错误
-                org.bukkit.block.BlockState[] tileEntities = chunk.getTileEntities();
-                for (org.bukkit.block.BlockState tileEntity : tileEntities) {
-                    if (tileEntity instanceof TileState tileState) {
-                        try {
-                            // 检查是否有墓碑标记
-                            if (tileState.getPersistentDataContainer().has(tombstoneKey, PersistentDataType.LONG)) {
-                                blocksToClean.add(tileState.getBlock());
-                            }
-                        } catch (Exception e) {
-                            // 忽略单个方块状态访问错误，继续处理其他方块
-                            plugin.getLogger().warning("访问方块状态时发生错误，跳过该方块: " + e.getMessage());
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                // 忽略区块访问错误，继续处理其他区块
-                plugin.getLogger().warning("访问区块 " + chunk.getX() + "," + chunk.getZ() + " 时发生错误: " + e.getMessage());
-            }
+        sweep = EntityCleanupSweep.create(plugin, this, messageManager, requesterId);
+        sweep.start();
+        return true;
+    }
+
+    /**
+     * 恢复服务器重启前未完成的清理任务
+     */
+    public void resumeSweep() {
+        if (sweep != null) {
+            return;
         }
 
-        // 清理找到的方块
-        for (Block block : blocksToClean) {
-            try {
-                block.setType(Material.AIR);
-                cleanedCount++;
-            } catch (Exception e) {
-                plugin.getLogger().warning("清理方块时发生错误: " + e.getMessage());
-            }
+        sweep = EntityCleanupSweep.resume(plugin, this, messageManager);
+        if (sweep != null) {
+            sweep.sendProgress(plugin.getServer().getConsoleSender(), "commands.cleanup.resumed");
+            sweep.start();
+        }
+    }
+
+    /**
+     * 取消正在运行的清理任务
+     *
+     * @return 是否有清理任务被取消
+     */
+    public boolean cancelSweep() {
+        if (sweep == null) {
+            return false;
         }
 
-        return cleanedCount;
+        sweep.abort();
+        sweep = null;
+        return true;
     }
-    
+
     /**
-     * 清理指定世界中的全息图实体
-     * 统一的全息图清理方法
-     * 
-     * @param world 世界
-     * @return 清理的全息图数量
+     * 暂停正在运行的清理任务并保存进度，插件关闭时调用
      */
-    private int cleanupHologramEntities(@NotNull World world) {
-        int cleanedCount = 0;
-        List<ArmorStand> armorStandsToRemove = new ArrayList<>();
-        
-        // 遍历世界中的所有实体
-        for (Entity entity : world.getEntities()) {
-            if (entity instanceof ArmorStand armorStand) {
-                // 检查是否有PDM全息图标记
-                if (armorStand.getPersistentDataContainer().has(hologramKey, PersistentDataType.STRING)) {
-                    armorStandsToRemove.add(armorStand);
-                }
-            }
+    public void suspendSweep() {
+        if (sweep != null) {
+            sweep.suspend();
+            sweep = null;
         }
-        
-        // 移除找到的盔甲架
-        for (ArmorStand armorStand : armorStandsToRemove) {
-            armorStand.remove();
-            cleanedCount++;
+    }
+
+    /**
+     * 获取正在运行的清理任务
+     *
+     * @return 清理任务，没有运行时返回null
+     */
+    @Nullable
+    public EntityCleanupSweep getSweep() {
+        return sweep;
+    }
+
+    /**
+     * 清理任务完成回调
+     *
+     * @param finished 完成的清理任务
+     */
+    void onSweepFinished(@NotNull EntityCleanupSweep finished) {
+        if (sweep == finished) {
+            sweep = null;
         }
-        
-        return cleanedCount;
     }
     
     /**
@@ -188,11 +245,18 @@ public class EntityCleanupManager {
      * @return 是否为PDM全息图
      */
     public boolean isPDMHologram(@NotNull Entity entity) {
-        if (!(entity instanceof ArmorStand armorStand)) {
-            return false;
-        }
-        
-        return armorStand.getPersistentDataContainer().has(hologramKey, PersistentDataType.STRING);
+        return entity.getPersistentDataContainer().has(hologramKey, PersistentDataType.STRING);
+    }
+
+    /**
+     * 检查实体是否为旧版本留下的持久化全息图
+     * 统一的残留全息图检查方法
+     *
+     * @param entity 实体
+     * @return 是否为残留全息图
+     */
+    public boolean isLegacyHologram(@NotNull Entity entity) {
+        return entity.isPersistent() && isPDMHologram(entity);
     }
     
     /**
@@ -221,11 +285,11 @@ public class EntityCleanupManager {
      * 获取全息图的墓碑ID
      * 统一的全息图墓碑ID获取方法
      * 
-     * @param armorStand 盔甲架实体
+     * @param entity 全息图实体
      * @return 墓碑ID，不存在返回null
      */
-    public Long getHologramTombstoneId(@NotNull ArmorStand armorStand) {
-        String idString = armorStand.getPersistentDataContainer().get(hologramKey, PersistentDataType.STRING);
+    public Long getHologramTombstoneId(@NotNull Entity entity) {
+        String idString = entity.getPersistentDataContainer().get(hologramKey, PersistentDataType.STRING);
         
         if (idString != null) {
             try {
@@ -239,14 +303,13 @@ public class EntityCleanupManager {
     }
     
     /**
-     * 清理指定位置的墓碑实体
-     * 统一的位置清理方法
+     * 清理指定位置的墓碑方块
+     * 统一的位置清理方法，只移除仍带有墓碑标记的方块
      *
      * @param location 位置
      */
-    public void cleanupTombstoneEntitiesAt(@NotNull Location location) {
+    public void cleanupTombstoneBlockAt(@NotNull Location location) {
         try {
-            // 清理方块
             Block block = location.getBlock();
             if (isTombstoneBlock(block)) {
                 block.setType(Material.AIR);
@@ -254,69 +317,8 @@ public class EntityCleanupManager {
         } catch (Exception e) {
             plugin.getLogger().warning("清理位置 " + location + " 的墓碑方块时发生错误: " + e.getMessage());
         }
-
-        try {
-            // 清理附近的全息图实体
-            World world = location.getWorld();
-            if (world != null) {
-                double radius = 5.0; // 搜索半径
-                for (Entity entity : world.getNearbyEntities(location, radius, radius, radius)) {
-                    if (isPDMHologram(entity)) {
-                        entity.remove();
-                    }
-                }
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("清理位置 " + location + " 的全息图实体时发生错误: " + e.getMessage());
-        }
     }
 
-    /**
-     * 清理指定墓碑ID的全息图实体
-     * 统一的墓碑ID清理方法
-     *
-     * @param tombstoneId 墓碑ID
-     * @param world 世界（可选，为null时搜索所有世界）
-     * @return 清理的全息图数量
-     */
-    public int cleanupHologramsByTombstoneId(long tombstoneId, @Nullable World world) {
-        int cleanedCount = 0;
-        List<World> worldsToSearch = new ArrayList<>();
-
-        if (world != null) {
-            worldsToSearch.add(world);
-        } else {
-            worldsToSearch.addAll(plugin.getServer().getWorlds());
-        }
-
-        for (World searchWorld : worldsToSearch) {
-            List<ArmorStand> armorStandsToRemove = new ArrayList<>();
-
-            // 遍历世界中的所有实体
-            for (Entity entity : searchWorld.getEntities()) {
-                if (entity instanceof ArmorStand armorStand) {
-                    // 检查是否有PDM全息图标记且墓碑ID匹配
-                    Long hologramTombstoneId = getHologramTombstoneId(armorStand);
-                    if (hologramTombstoneId != null && hologramTombstoneId == tombstoneId) {
-                        armorStandsToRemove.add(armorStand);
-                    }
-                }
-            }
-
-            // 移除找到的盔甲架
-            for (ArmorStand armorStand : armorStandsToRemove) {
-                try {
-                    armorStand.remove();
-                    cleanedCount++;
-                } catch (Exception e) {
-                    plugin.getLogger().warning("移除墓碑ID " + tombstoneId + " 的全息图时发生错误: " + e.getMessage());
-                }
-            }
-        }
-
-        return cleanedCount;
-    }
-    
     /**
      * 获取墓碑标记的NamespacedKey
      * 统一的Key获取方法
@@ -0,0 +1,409 @@
+package cn.i7mc.utils;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.MessageManager;
+import cn.i7mc.managers.TombstoneManager;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.TileState;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 残留实体清理任务 - 按区块分片扫描所有已加载区块中的残留墓碑方块和全息图
+ * 每tick最多扫描固定数量的区块，并受毫秒预算限制；进度定期写入游标文件，服务器重启后从游标继续
+ * 只清理不属于任何已知墓碑的方块和全息图，不会主动加载区块
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class EntityCleanupSweep extends BukkitRunnable {
+
+    private static final String CURSOR_FILE = "cleanup-sweep.yml";
+    // 进度汇报和游标保存间隔 (tick)
+    private static final int PROGRESS_INTERVAL = 100;
+
+    private final PlayerDeadManager plugin;
+    private final EntityCleanupManager cleanupManager;
+    private final MessageManager messageManager;
+    private final TombstoneManager tombstoneManager;
+    private final UUID requesterId;
+    private final List<String> worldNames;
+    private final int chunksPerTick;
+    private final long budgetNanos;
+
+    private int worldIndex;
+    private World currentWorld;
+    private long[] chunkKeys;
+    private int chunkIndex;
+    private long lastChunkKey = Long.MIN_VALUE;
+    private int scannedChunks;
+    private int cleanedBlocks;
+    private int cleanedHolograms;
+    private int ticks;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     * @param cleanupManager 实体清理管理器
+     * @param messageManager 消息管理器
+     * @param requesterId 发起清理的玩家UUID，控制台发起为null
+     * @param worldNames 需要扫描的世界名称
+     */
+    private EntityCleanupSweep(@NotNull PlayerDeadManager plugin, @NotNull EntityCleanupManager cleanupManager,
+                               @NotNull MessageManager messageManager, @Nullable UUID requesterId,
+                               @NotNull List<String> worldNames) {
+        this.plugin = plugin;
+        this.cleanupManager = cleanupManager;
+        this.messageManager = messageManager;
+        this.tombstoneManager = plugin.getTombstoneManager();
+        this.requesterId = requesterId;
+        this.worldNames = worldNames;
+        this.chunksPerTick = Math.max(1, plugin.getConfigManager().getInt("tombstone.cleanup-sweep-chunks-per-tick", 16));
+        this.budgetNanos = Math.max(1, plugin.getConfigManager().getInt("tombstone.cleanup-sweep-budget-ms", 5)) * 1_000_000L;
+    }
+
+    /**
+     * 创建覆盖当前所有世界的清理任务
+     *
+     * @param plugin 插件实例
+     * @param cleanupManager 实体清理管理器
+     * @param messageManager 消息管理器
+     * @param requesterId 发起清理的玩家UUID，控制台发起为null
+     * @return 清理任务
+     */
+    @NotNull
+    public static EntityCleanupSweep create(@NotNull PlayerDeadManager plugin, @NotNull EntityCleanupManager cleanupManager,
+                                            @NotNull MessageManager messageManager, @Nullable UUID requesterId) {
+        List<String> worldNames = new ArrayList<>();
+        for (World world : plugin.getServer().getWorlds()) {
+            worldNames.add(world.getName());
+        }
+        return new EntityCleanupSweep(plugin, cleanupManager, messageManager, requesterId, worldNames);
+    }
+
+    /**
+     * 从游标文件恢复上次未完成的清理任务
+     *
+     * @param plugin 插件实例
+     * @param cleanupManager 实体清理管理器
+     * @param messageManager 消息管理器
+     * @return 清理任务，没有未完成的清理返回null
+     */
+    @Nullable
+    public static EntityCleanupSweep resume(@NotNull PlayerDeadManager plugin, @NotNull EntityCleanupManager cleanupManager,
+                                            @NotNull MessageManager messageManager) {
+        File cursorFile = new File(plugin.getDataFolder(), CURSOR_FILE);
+        if (!cursorFile.exists()) {
+            return null;
+        }
+
+        YamlConfiguration cursor = YamlConfiguration.loadConfiguration(cursorFile);
+        List<String> worldNames = cursor.getStringList("worlds");
+        int worldIndex = cursor.getInt("world-index", 0);
+        if (worldIndex >= worldNames.size()) {
+            cursorFile.delete();
+            return null;
+        }
+
+        String requester = cursor.getString("requester");
+        UUID requesterId = null;
+        if (requester != null) {
+            try {
+                requesterId = UUID.fromString(requester);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("无效的清理发起者UUID: " + requester);
+            }
+        }
+
+        EntityCleanupSweep sweep = new EntityCleanupSweep(plugin, cleanupManager, messageManager, requesterId, worldNames);
+        sweep.worldIndex = worldIndex;
+        sweep.lastChunkKey = cursor.getLong("chunk-key", Long.MIN_VALUE);
+        sweep.scannedChunks = cursor.getInt("chunks", 0);
+        sweep.cleanedBlocks = cursor.getInt("blocks", 0);
+        sweep.cleanedHolograms = cursor.getInt("holograms", 0);
+        return sweep;
+    }
+
+    /**
+     * 启动清理任务，每tick执行一次
+     */
+    public void start() {
+        saveCursor();
+        runTaskTimer(plugin, 1L, 1L);
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + budgetNanos;
+        int processed = 0;
+
+        while (processed < chunksPerTick && System.nanoTime() < deadline) {
+            if (chunkKeys == null && !loadNextWorld()) {
+                finish();
+                return;
+            }
+            if (chunkIndex >= chunkKeys.length) {
+                // 当前世界扫描完毕，切换到下一个世界
+                chunkKeys = null;
+                currentWorld = null;
+                worldIndex++;
+                lastChunkKey = Long.MIN_VALUE;
+                continue;
+            }
+
+            long chunkKey = chunkKeys[chunkIndex++];
+            sweepChunk(currentWorld, chunkKey);
+            lastChunkKey = chunkKey;
+            scannedChunks++;
+            processed++;
+        }
+
+        if (++ticks % PROGRESS_INTERVAL == 0) {
+            sendProgress("commands.cleanup.progress");
+            saveCursor();
+        }
+    }
+
+    /**
+     * 取消清理任务并删除游标
+     */
+    public void abort() {
+        cancel();
+        deleteCursor();
+        sendResult("commands.cleanup.cancelled");
+    }
+
+    /**
+     * 停止清理任务并保存游标，下次启动时继续
+     */
+    public void suspend() {
+        cancel();
+        saveCursor();
+    }
+
+    /**
+     * 向指定接收者发送当前进度
+     *
+     * @param sender 接收者
+     * @param messageKey 消息键
+     */
+    public void sendProgress(@NotNull CommandSender sender, @NotNull String messageKey) {
+        messageManager.sendMessage(sender, messageKey, createProgressPlaceholders(sender));
+    }
+
+    /**
+     * 加载下一个存在的世界的已加载区块列表
+     * 区块按区块键排序，恢复时跳过游标之前的区块
+     *
+     * @return 是否还有需要扫描的世界
+     */
+    private boolean loadNextWorld() {
+        while (worldIndex < worldNames.size()) {
+            World world = plugin.getServer().getWorld(worldNames.get(worldIndex));
+            if (world == null) {
+                worldIndex++;
+                lastChunkKey = Long.MIN_VALUE;
+                continue;
+            }
+
+            Chunk[] loadedChunks = world.getLoadedChunks();
+            long[] keys = new long[loadedChunks.length];
+            int count = 0;
+            for (Chunk chunk : loadedChunks) {
+                long key = chunk.getChunkKey();
+                if (key > lastChunkKey) {
+                    keys[count++] = key;
+                }
+            }
+            keys = Arrays.copyOf(keys, count);
+            Arrays.sort(keys);
+
+            currentWorld = world;
+            chunkKeys = keys;
+            chunkIndex = 0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 扫描单个区块中的残留墓碑方块和全息图
+     * 区块已卸载时跳过，实体未加载时只扫描方块
+     *
+     * @param world 世界
+     * @param chunkKey 区块键
+     */
+    private void sweepChunk(@NotNull World world, long chunkKey) {
+        int chunkX = (int) chunkKey;
+        int chunkZ = (int) (chunkKey >> 32);
+        if (!world.isChunkLoaded(chunkX, chunkZ)) {
+            return;
+        }
+
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        try {
+            for (BlockState state : chunk.getTileEntities()) {
+                if (state instanceof TileState tileState) {
+                    Long tombstoneId = tileState.getPersistentDataContainer()
+                        .get(cleanupManager.getTombstoneKey(), PersistentDataType.LONG);
+                    if (tombstoneId != null && isOrphan(tombstoneId)) {
+                        tileState.getBlock().setType(Material.AIR);
+                        cleanedBlocks++;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            plugin.getLogger().warning("访问区块 " + chunkX + "," + chunkZ + " 时发生错误: " + e.getMessage());
+        }
+
+        if (!chunk.isEntitiesLoaded()) {
+            return;
+        }
+        for (Entity entity : chunk.getEntities()) {
+            if (cleanupManager.isPDMHologram(entity)) {
+                Long tombstoneId = cleanupManager.getHologramTombstoneId(entity);
+                // 旧版本留下的持久化全息图即使属于现存墓碑也会与重新创建的全息图重复
+                if (tombstoneId == null || entity.isPersistent() || isOrphan(tombstoneId)) {
+                    entity.remove();
+                    cleanedHolograms++;
+                }
+            }
+        }
+    }
+
+    /**
+     * 检查墓碑ID是否不属于任何已知墓碑
+     *
+     * @param tombstoneId 墓碑ID
+     * @return 是否为残留
+     */
+    private boolean isOrphan(long tombstoneId) {
+        return tombstoneManager.getTombstoneById(tombstoneId) == null;
+    }
+
+    /**
+     * 完成清理任务
+     */
+    private void finish() {
+        cancel();
+        deleteCursor();
+        cleanupManager.onSweepFinished(this);
+        sendResult("commands.cleanup.complete");
+
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        placeholders.put("blocks", String.valueOf(cleanedBlocks));
+        placeholders.put("holograms", String.valueOf(cleanedHolograms));
+        String logMessage = messageManager.getMessage("logs.cleanup.entity-cleanup-completed", placeholders);
+        if (logMessage != null) {
+            plugin.getLogger().info(logMessage);
+        } else {
+            plugin.getLogger().info("实体清理完成 - 清理方块: " + cleanedBlocks + " 个，清理全息图: " + cleanedHolograms + " 个");
+        }
+    }
+
+    /**
+     * 向发起者发送进度消息
+     *
+     * @param messageKey 消息键
+     */
+    private void sendProgress(@NotNull String messageKey) {
+        CommandSender recipient = getRequester();
+        if (recipient != null) {
+            sendProgress(recipient, messageKey);
+        }
+    }
+
+    /**
+     * 向发起者发送结果消息，发起者不是控制台时同时输出到控制台
+     *
+     * @param messageKey 消息键
+     */
+    private void sendResult(@NotNull String messageKey) {
+        sendProgress(messageKey);
+        if (requesterId != null) {
+            sendProgress(plugin.getServer().getConsoleSender(), messageKey);
+        }
+    }
+
+    /**
+     * 获取发起者，发起清理的玩家不在线时返回null
+     *
+     * @return 发起者
+     */
+    @Nullable
+    private CommandSender getRequester() {
+        if (requesterId == null) {
+            return plugin.getServer().getConsoleSender();
+        }
+        return plugin.getServer().getPlayer(requesterId);
+    }
+
+    /**
+     * 创建进度占位符
+     *
+     * @param sender 接收者
+     * @return 占位符映射
+     */
+    @NotNull
+    private Map<String, String> createProgressPlaceholders(@NotNull CommandSender sender) {
+        Map<String, String> placeholders = messageManager.createPlaceholders();
+        if (sender instanceof Player player) {
+            messageManager.addPlayerPlaceholders(placeholders, player);
+        }
+        int worldCount = worldNames.size();
+        placeholders.put("world", worldIndex < worldCount ? worldNames.get(worldIndex) : "-");
+        placeholders.put("world_index", String.valueOf(Math.min(worldIndex + 1, worldCount)));
+        placeholders.put("world_count", String.valueOf(worldCount));
+        placeholders.put("chunks", String.valueOf(scannedChunks));
+        placeholders.put("blocks", String.valueOf(cleanedBlocks));
+        placeholders.put("holograms", String.valueOf(cleanedHolograms));
+        return placeholders;
+    }
+
+    /**
+     * 保存游标文件
+     */
+    private void saveCursor() {
+        YamlConfiguration cursor = new YamlConfiguration();
+        cursor.set("requester", requesterId != null ? requesterId.toString() : null);
+        cursor.set("worlds", worldNames);
+        cursor.set("world-index", worldIndex);
+        cursor.set("chunk-key", lastChunkKey);
+        cursor.set("chunks", scannedChunks);
+        cursor.set("blocks", cleanedBlocks);
+        cursor.set("holograms", cleanedHolograms);
+        try {
+            cursor.save(new File(plugin.getDataFolder(), CURSOR_FILE));
+        } catch (IOException e) {
+            plugin.getLogger().warning("保存清理进度失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 删除游标文件
+     */
+    private void deleteCursor() {
+        File cursorFile = new File(plugin.getDataFolder(), CURSOR_FILE);
+        if (cursorFile.exists() && !cursorFile.delete()) {
+            plugin.getLogger().warning("删除清理进度文件失败: " + cursorFile.getName());
+        }
+    }
+}
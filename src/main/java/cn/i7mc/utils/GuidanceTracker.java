@@ -0,0 +1,185 @@
+package cn.i7mc.utils;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.ConfigManager;
+import cn.i7mc.managers.MessageManager;
+import cn.i7mc.managers.TombstoneManager;
+import cn.i7mc.tombstones.PlayerTombstone;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 引导跟踪器 - 为开启引导的玩家持续显示指向最近墓碑的粒子路径
+ * 所有引导中的玩家共用一个定时任务，按配置的间隔批量刷新，没有玩家开启引导时任务停止
+ * 最近的墓碑由墓碑管理器的内存索引提供，所有方法都必须在主线程调用
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class GuidanceTracker {
+
+    private final PlayerDeadManager plugin;
+    private final ConfigManager configManager;
+    private final MessageManager messageManager;
+    private final TombstoneManager tombstoneManager;
+    private final ParticleUtil particleUtil;
+    private final VisualLodController lodController;
+    // 开启引导的玩家
+    private final Set<UUID> guidedPlayers;
+    private BukkitTask updateTask;
+
+    // 启动任务时解析一次的设置
+    private double pathLength;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     * @param configManager 配置管理器
+     * @param messageManager 消息管理器
+     * @param tombstoneManager 墓碑管理器
+     * @param particleUtil 粒子效果工具
+     * @param lodController 视觉效果等级控制器
+     */
+    public GuidanceTracker(@NotNull PlayerDeadManager plugin, @NotNull ConfigManager configManager,
+                           @NotNull MessageManager messageManager, @NotNull TombstoneManager tombstoneManager,
+                           @NotNull ParticleUtil particleUtil, @NotNull VisualLodController lodController) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.messageManager = messageManager;
+        this.tombstoneManager = tombstoneManager;
+        this.particleUtil = particleUtil;
+        this.lodController = lodController;
+        this.guidedPlayers = new HashSet<>();
+    }
+
+    /**
+     * 开启或关闭玩家的引导
+     * 统一的引导切换方法
+     *
+     * @param player 玩家
+     * @return 切换后是否处于引导状态
+     */
+    public boolean toggle(@NotNull Player player) {
+        if (guidedPlayers.remove(player.getUniqueId())) {
+            if (guidedPlayers.isEmpty()) {
+                stopUpdateTask();
+            }
+            return false;
+        }
+
+        guidedPlayers.add(player.getUniqueId());
+        if (updateTask == null) {
+            startUpdateTask();
+        }
+        return true;
+    }
+
+    /**
+     * 检查玩家是否开启了引导
+     *
+     * @param playerId 玩家UUID
+     * @return 是否开启了引导
+     */
+    public boolean isGuided(@NotNull UUID playerId) {
+        return guidedPlayers.contains(playerId);
+    }
+
+    /**
+     * 获取开启引导的玩家数量
+     *
+     * @return 玩家数量
+     */
+    public int getGuidedCount() {
+        return guidedPlayers.size();
+    }
+
+    /**
+     * 重新读取引导设置
+     * 统一的设置解析方法，在配置重载时调用，关闭视觉引导后清除所有玩家的引导状态
+     */
+    public void reloadSettings() {
+        if (!configManager.getBoolean("notifications.visual-guidance", true)) {
+            shutdown();
+            return;
+        }
+        if (updateTask != null) {
+            stopUpdateTask();
+            startUpdateTask();
+        }
+    }
+
+    /**
+     * 关闭跟踪器
+     * 统一的关闭方法
+     */
+    public void shutdown() {
+        stopUpdateTask();
+        guidedPlayers.clear();
+    }
+
+    /**
+     * 启动刷新任务
+     * 统一的任务启动方法
+     */
+    private void startUpdateTask() {
+        int guidanceInterval = Math.max(1, configManager.getInt("notifications.guidance-interval", 10));
+        pathLength = Math.max(1.0, configManager.getDouble("notifications.guidance-path-length", 12.0));
+        updateTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::update, 0L, guidanceInterval);
+    }
+
+    /**
+     * 停止刷新任务
+     */
+    private void stopUpdateTask() {
+        if (updateTask != null) {
+            updateTask.cancel();
+            updateTask = null;
+        }
+    }
+
+    /**
+     * 批量刷新所有引导中的玩家
+     * 离线玩家直接移除，当前世界没有墓碑的玩家自动关闭引导并收到提示
+     */
+    private void update() {
+        boolean skipPaths = lodController.getLevel() == VisualLodController.Level.OFF;
+
+        Iterator<UUID> iterator = guidedPlayers.iterator();
+        while (iterator.hasNext()) {
+            Player player = plugin.getServer().getPlayer(iterator.next());
+            if (player == null) {
+                iterator.remove();
+                continue;
+            }
+
+            PlayerTombstone nearest = tombstoneManager.getNearestTombstone(player);
+            if (nearest == null) {
+                iterator.remove();
+                messageManager.sendMessage(player, "commands.guide.no-tombstone");
+                continue;
+            }
+
+            // 服务器负载过高时只保留引导状态，不绘制路径
+            if (skipPaths) {
+                continue;
+            }
+
+            Location from = player.getLocation();
+            Location target = nearest.getLocation();
+            particleUtil.drawGuidancePath(player, from.getX(), from.getY(), from.getZ(),
+                target.getBlockX() + 0.5, target.getBlockY() + 0.5, target.getBlockZ() + 0.5, pathLength);
+        }
+
+        if (guidedPlayers.isEmpty()) {
+            stopUpdateTask();
+        }
+    }
+}
@@ -5,10 +5,14 @@ import cn.i7mc.managers.ConfigManager;
 import cn.i7mc.managers.MessageManager;
 import cn.i7mc.tombstones.PlayerTombstone;
 import cn.i7mc.utils.TimeUtil;
+import org.bukkit.ChatColor;
 import org.bukkit.Location;
 import org.bukkit.NamespacedKey;
 import org.bukkit.entity.ArmorStand;
-import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
@@ -18,10 +22,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * 全息图工具类 - 统一处理全息图显示相关逻辑
- * 遵循统一方法原则，避免重复造轮子
+ * 全息图实体不会保存到区块文件，区块卸载时随区块丢弃，区块加载后由墓碑管理器重新创建
+ * 支持两种显示模式：text-display 使用单个文本展示实体显示所有行，armor-stand 为每行创建一个盔甲架
+ * 所有者名称和死亡时间只在创建时计算一次，保护剩余时间只在显示值变化时重新计算，并且只推送内容变化的行
  * 
  * @author saga
  * @version 1.0.0
@@ -31,10 +38,14 @@ public class HologramUtil {
     private final PlayerDeadManager plugin;
     private final ConfigManager configManager;
     private final MessageManager messageManager;
-    private final Map<Location, List<ArmorStand>> holograms;
+    private final VisibilityTracker visibilityTracker;
+    private final VisualLodController lodController;
+    private final Map<Location, Hologram> holograms;
+    // 墓碑所有者名称缓存，避免重复读取离线玩家数据
+    private final Map<UUID, String> ownerNames;
     private final NamespacedKey hologramKey;
     private BukkitRunnable updateTask;
-    private cn.i7mc.managers.TombstoneManager tombstoneManager;
+    private long updateCycle;
     
     /**
      * 构造函数
@@ -42,38 +53,36 @@ public class HologramUtil {
      * @param plugin 插件实例
      * @param configManager 配置管理器
      * @param messageManager 消息管理器
+     * @param visibilityTracker 可见性跟踪器
+     * @param lodController 视觉效果等级控制器
      */
     public HologramUtil(@NotNull PlayerDeadManager plugin,
                        @NotNull ConfigManager configManager,
-                       @NotNull MessageManager messageManager) {
+                       @NotNull MessageManager messageManager,
+                       @NotNull VisibilityTracker visibilityTracker,
+                       @NotNull VisualLodController lodController) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.messageManager = messageManager;
+        this.visibilityTracker = visibilityTracker;
+        this.lodController = lodController;
         this.holograms = new HashMap<>();
+        this.ownerNames = new HashMap<>();
         this.hologramKey = new NamespacedKey(plugin, "pdm_hologram");
 
         startUpdateTask();
     }
 
-    /**
-     * 设置墓碑管理器引用
-     * 统一的管理器设置方法
-     *
-     * @param tombstoneManager 墓碑管理器
-     */
-    public void setTombstoneManager(@NotNull cn.i7mc.managers.TombstoneManager tombstoneManager) {
-        this.tombstoneManager = tombstoneManager;
-    }
-    
     /**
      * 创建墓碑全息图
      * 统一的全息图创建方法
      * 
      * @param tombstone 墓碑实例
+     * @return 是否创建了全息图，全息图关闭时返回false
      */
-    public void createHologram(@NotNull PlayerTombstone tombstone) {
+    public boolean createHologram(@NotNull PlayerTombstone tombstone) {
         if (!configManager.getBoolean("hologram.enabled", true)) {
-            return;
+            return false;
         }
         
         Location location = tombstone.getLocation();
@@ -81,86 +90,86 @@ public class HologramUtil {
         Location hologramLocation = location.clone().add(0.5, heightOffset, 0.5);
         
         // 获取全息图内容
-        List<String> lines = getHologramLines(tombstone);
-        List<ArmorStand> armorStands = new ArrayList<>();
-        
-        // 创建每一行的盔甲架
-        for (int i = 0; i < lines.size(); i++) {
-            Location lineLocation = hologramLocation.clone().subtract(0, i * 0.25, 0);
-            ArmorStand armorStand = createHologramLine(lineLocation, lines.get(i), tombstone.getTombstoneId());
-            if (armorStand != null) {
-                armorStands.add(armorStand);
+        String[] templates = createTemplates(tombstone);
+        List<String> lines = renderLines(templates, tombstone);
+        List<Entity> entities = new ArrayList<>();
+
+        if (isTextDisplayMode()) {
+            // 单个文本展示实体显示所有行，实体位于文本底部，与盔甲架模式的最后一行对齐
+            Location displayLocation = hologramLocation.clone().subtract(0, Math.max(0, lines.size() - 1) * 0.25, 0);
+            TextDisplay textDisplay = createTextDisplay(displayLocation, lines, tombstone.getTombstoneId());
+            if (textDisplay != null) {
+                entities.add(textDisplay);
+            }
+        } else {
+            // 创建每一行的盔甲架
+            for (int i = 0; i < lines.size(); i++) {
+                Location lineLocation = hologramLocation.clone().subtract(0, i * 0.25, 0);
+                ArmorStand armorStand = createHologramLine(lineLocation, lines.get(i), tombstone.getTombstoneId());
+                if (armorStand != null) {
+                    entities.add(armorStand);
+                }
             }
         }
         
         // 存储全息图
-        holograms.put(location, armorStands);
+        holograms.put(location, new Hologram(tombstone, entities, templates, lines));
+        return true;
     }
     
     /**
      * 移除墓碑全息图
-     * 统一的全息图移除方法
+     * 统一的全息图移除方法，只移除已记录的实体，不搜索附近的实体
+     * 全息图不会保存到区块文件，旧版本留下的持久化全息图在实体加载时统一清理
      *
      * @param location 墓碑位置
      */
     public void removeHologram(@NotNull Location location) {
-        List<ArmorStand> armorStands = holograms.remove(location);
-        if (armorStands != null) {
-            for (ArmorStand armorStand : armorStands) {
-                if (armorStand != null && !armorStand.isDead()) {
-                    try {
-                        armorStand.remove();
-                    } catch (Exception e) {
-                        plugin.getLogger().warning("移除全息图盔甲架时发生错误: " + e.getMessage());
-                    }
-                }
-            }
+        Hologram hologram = holograms.remove(location);
+        if (hologram == null) {
+            return;
         }
 
-        // 额外安全检查：如果位置仍有残留的全息图实体，尝试清理
-        if (location.getWorld() != null) {
-            try {
-                double radius = 2.0; // 小范围搜索
-                for (org.bukkit.entity.Entity entity : location.getWorld().getNearbyEntities(location, radius, radius, radius)) {
-                    if (entity instanceof org.bukkit.entity.ArmorStand armorStand) {
-                        // 检查是否有PDM全息图标记
-                        if (armorStand.getPersistentDataContainer().has(hologramKey, org.bukkit.persistence.PersistentDataType.STRING)) {
-                            try {
-                                armorStand.remove();
-                            } catch (Exception e) {
-                                plugin.getLogger().warning("清理残留全息图实体时发生错误: " + e.getMessage());
-                            }
-                        }
-                    }
+        for (Entity entity : hologram.entities) {
+            if (entity != null && !entity.isDead()) {
+                try {
+                    entity.remove();
+                } catch (Exception e) {
+                    plugin.getLogger().warning("移除全息图实体时发生错误: " + e.getMessage());
                 }
-            } catch (Exception e) {
-                plugin.getLogger().warning("搜索残留全息图实体时发生错误: " + e.getMessage());
             }
         }
     }
     
     /**
      * 更新墓碑全息图
-     * 统一的全息图更新方法
+     * 统一的全息图更新方法，立即重新计算并推送变化的行
      * 
      * @param tombstone 墓碑实例
      */
     public void updateHologram(@NotNull PlayerTombstone tombstone) {
-        Location location = tombstone.getLocation();
-        List<ArmorStand> armorStands = holograms.get(location);
-        
-        if (armorStands == null || armorStands.isEmpty()) {
+        Hologram hologram = holograms.get(tombstone.getLocation());
+        if (hologram != null) {
+            refreshHologram(hologram, System.currentTimeMillis());
+        }
+    }
+    
+    /**
+     * 更新全息图的墓碑ID标记
+     * 统一的ID标记更新方法，用于异步写入完成后回填真实ID
+     *
+     * @param location 墓碑位置
+     * @param tombstoneId 墓碑ID
+     */
+    public void updateHologramTombstoneId(@NotNull Location location, long tombstoneId) {
+        Hologram hologram = holograms.get(location);
+        if (hologram == null) {
             return;
         }
-        
-        // 获取更新后的内容
-        List<String> lines = getHologramLines(tombstone);
-        
-        // 更新每一行
-        for (int i = 0; i < Math.min(lines.size(), armorStands.size()); i++) {
-            ArmorStand armorStand = armorStands.get(i);
-            if (armorStand != null && !armorStand.isDead()) {
-                armorStand.setCustomName(lines.get(i));
+
+        for (Entity entity : hologram.entities) {
+            if (entity != null && !entity.isDead()) {
+                entity.getPersistentDataContainer().set(hologramKey, PersistentDataType.STRING, String.valueOf(tombstoneId));
             }
         }
     }
@@ -180,65 +189,191 @@ public class HologramUtil {
             return null;
         }
 
-        ArmorStand armorStand = (ArmorStand) location.getWorld().spawnEntity(location, EntityType.ARMOR_STAND);
+        // 在加入世界前设置好所有属性，避免生成后再修改
+        return location.getWorld().spawn(location, ArmorStand.class, armorStand -> {
+            // 设置盔甲架属性
+            armorStand.setVisible(false);
+            armorStand.setGravity(false);
+            armorStand.setCanPickupItems(false);
+            armorStand.setCustomNameVisible(true);
+            armorStand.setCustomName(text);
+            armorStand.setMarker(true);
+            armorStand.setSmall(true);
+            armorStand.setInvulnerable(true);
 
-        // 设置盔甲架属性
-        armorStand.setVisible(false);
-        armorStand.setGravity(false);
-        armorStand.setCanPickupItems(false);
-        armorStand.setCustomNameVisible(true);
-        armorStand.setCustomName(text);
-        armorStand.setMarker(true);
-        armorStand.setSmall(true);
-        armorStand.setInvulnerable(true);
+            // 不保存到区块文件，重启或区块卸载后不会留下残留实体
+            armorStand.setPersistent(false);
 
-        // 添加PDM全息图标记
-        armorStand.getPersistentDataContainer().set(hologramKey, PersistentDataType.STRING, String.valueOf(tombstoneId));
+            // 添加PDM全息图标记
+            armorStand.getPersistentDataContainer().set(hologramKey, PersistentDataType.STRING, String.valueOf(tombstoneId));
+        });
+    }
+
+    /**
+     * 创建文本展示全息图
+     * 统一的文本展示创建方法，所有行由一个不参与tick的展示实体显示
+     *
+     * @param location 位置（文本底部）
+     * @param lines 文本行
+     * @param tombstoneId 墓碑ID
+     * @return 文本展示实体
+     */
+    @Nullable
+    private TextDisplay createTextDisplay(@NotNull Location location, @NotNull List<String> lines, long tombstoneId) {
+        if (location.getWorld() == null) {
+            return null;
+        }
+
+        Display.Billboard billboard = getBillboard();
+        float viewRange = (float) configManager.getDouble("hologram.text-display.view-range", 1.0);
+        int lineWidth = configManager.getInt("hologram.text-display.line-width", 200);
+
+        // 在加入世界前设置好所有属性，避免生成后再修改
+        return location.getWorld().spawn(location, TextDisplay.class, textDisplay -> {
+            textDisplay.setText(String.join("\n", lines));
+            textDisplay.setBillboard(billboard);
+            textDisplay.setViewRange(viewRange);
+            textDisplay.setLineWidth(lineWidth);
+            textDisplay.setAlignment(TextDisplay.TextAlignment.CENTER);
+
+            // 不保存到区块文件，重启或区块卸载后不会留下残留实体
+            textDisplay.setPersistent(false);
+
+            // 添加PDM全息图标记
+            textDisplay.getPersistentDataContainer().set(hologramKey, PersistentDataType.STRING, String.valueOf(tombstoneId));
+        });
+    }
+
+    /**
+     * 检查是否使用文本展示模式
+     *
+     * @return 是否使用文本展示模式
+     */
+    private boolean isTextDisplayMode() {
+        return !"armor-stand".equalsIgnoreCase(configManager.getString("hologram.mode", "text-display"));
+    }
+
+    /**
+     * 获取配置的文本展示朝向模式
+     * 统一的朝向获取方法
+     *
+     * @return 朝向模式
+     */
+    @NotNull
+    private Display.Billboard getBillboard() {
+        String billboardName = configManager.getString("hologram.text-display.billboard", "CENTER");
 
-        return armorStand;
+        try {
+            return Display.Billboard.valueOf(billboardName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("无效的全息图朝向模式: " + billboardName + "，使用默认的CENTER");
+            return Display.Billboard.CENTER;
+        }
     }
     
     /**
-     * 获取全息图内容行
-     * 统一的内容获取方法
+     * 创建全息图内容模板
+     * 统一的内容模板方法，所有者名称和死亡时间在此一次性替换，只保留随时间变化的保护剩余时间占位符
      * 
      * @param tombstone 墓碑实例
-     * @return 内容行列表
+     * @return 内容模板
      */
     @NotNull
-    private List<String> getHologramLines(@NotNull PlayerTombstone tombstone) {
+    private String[] createTemplates(@NotNull PlayerTombstone tombstone) {
         List<String> configLines = configManager.getStringList("hologram.format");
-        List<String> processedLines = new ArrayList<>();
-        
-        // 创建占位符
-        Map<String, String> placeholders = messageManager.createPlaceholders();
-        
-        // 添加墓碑相关占位符
-        String ownerName = plugin.getServer().getOfflinePlayer(tombstone.getPlayerId()).getName();
+        String ownerName = getOwnerName(tombstone.getPlayerId());
+        String deathTime = TimeUtil.formatTimestampSimple(tombstone.getDeathTime());
+
+        String[] templates = new String[configLines.size()];
+        for (int i = 0; i < templates.length; i++) {
+            templates[i] = configLines.get(i)
+                .replace("{player}", ownerName)
+                .replace("{time}", deathTime);
+        }
+        return templates;
+    }
+
+    /**
+     * 渲染全息图内容行
+     * 统一的内容渲染方法，只有包含保护剩余时间的行需要重新替换
+     *
+     * @param templates 内容模板
+     * @param tombstone 墓碑实例
+     * @return 内容行列表
+     */
+    @NotNull
+    private List<String> renderLines(@NotNull String[] templates, @NotNull PlayerTombstone tombstone) {
+        String protection = null;
+        List<String> lines = new ArrayList<>(templates.length);
+
+        for (String template : templates) {
+            String line = template;
+            if (line.contains("{protection}")) {
+                if (protection == null) {
+                    protection = TimeUtil.formatRemainingTime(
+                        TimeUtil.getRemainingTime(tombstone.getProtectionExpire()), messageManager
+                    );
+                }
+                line = line.replace("{protection}", protection);
+            }
+            // 处理颜色代码
+            lines.add(ChatColor.translateAlternateColorCodes('&', line));
+        }
+        return lines;
+    }
+
+    /**
+     * 获取墓碑所有者名称
+     * 统一的名称获取方法，每个玩家只解析一次
+     *
+     * @param playerId 玩家UUID
+     * @return 玩家名称，无法解析时返回未知玩家文本
+     */
+    @NotNull
+    private String getOwnerName(@NotNull UUID playerId) {
+        String cached = ownerNames.get(playerId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 在线玩家直接取名称，避免读取离线玩家数据
+        Player player = plugin.getServer().getPlayer(playerId);
+        String ownerName = player != null ? player.getName() : plugin.getServer().getOfflinePlayer(playerId).getName();
         if (ownerName == null) {
             String unknownPlayer = messageManager.getMessage("time.unknown-player", null);
-            ownerName = unknownPlayer != null ? unknownPlayer : "未知玩家";
+            return unknownPlayer != null ? unknownPlayer : "未知玩家";
         }
 
-        placeholders.put("player", ownerName);
-        placeholders.put("time", TimeUtil.formatTimestampSimple(tombstone.getDeathTime()));
-        placeholders.put("protection", TimeUtil.formatRemainingTime(
-            TimeUtil.getRemainingTime(tombstone.getProtectionExpire()), messageManager
-        ));
-
-        // 处理每一行
-        for (String line : configLines) {
-            // 手动替换占位符
-            String processedLine = line;
-            for (Map.Entry<String, String> entry : placeholders.entrySet()) {
-                processedLine = processedLine.replace("{" + entry.getKey() + "}", entry.getValue());
+        ownerNames.put(playerId, ownerName);
+        return ownerName;
+    }
+
+    /**
+     * 刷新全息图内容
+     * 只推送与上次不同的行，并根据保护剩余时间的显示精度计算下一次需要刷新的时间
+     *
+     * @param hologram 全息图
+     * @param now 当前时间
+     */
+    private void refreshHologram(@NotNull Hologram hologram, long now) {
+        List<String> lines = renderLines(hologram.templates, hologram.tombstone);
+
+        if (!hologram.entities.isEmpty() && hologram.entities.get(0) instanceof TextDisplay textDisplay) {
+            // 文本展示实体一次更新所有行（按实体类型判断，兼容重载前以另一种模式创建的全息图）
+            if (!lines.equals(hologram.lines) && !textDisplay.isDead()) {
+                textDisplay.setText(String.join("\n", lines));
+            }
+        } else {
+            for (int i = 0; i < Math.min(lines.size(), hologram.entities.size()); i++) {
+                Entity entity = hologram.entities.get(i);
+                if (!lines.get(i).equals(hologram.lines.get(i)) && entity != null && !entity.isDead()) {
+                    entity.setCustomName(lines.get(i));
+                }
             }
-            // 处理颜色代码
-            processedLine = org.bukkit.ChatColor.translateAlternateColorCodes('&', processedLine);
-            processedLines.add(processedLine);
         }
-        
-        return processedLines;
+
+        hologram.lines = lines;
+        hologram.scheduleNextRefresh(now);
     }
     
     /**
@@ -260,26 +395,23 @@ public class HologramUtil {
     
     /**
      * 更新所有全息图
-     * 统一的批量更新方法
+     * 统一的批量更新方法，只刷新保护剩余时间的显示值已经变化、且附近有玩家的全息图
+     * 被跳过的全息图保持到期状态，玩家靠近后的下一次更新立即刷新
      */
     private void updateAllHolograms() {
         if (!configManager.getBoolean("hologram.enabled", true)) {
             return;
         }
 
-        if (tombstoneManager == null) {
+        // 服务器负载过高时按视觉效果等级降低刷新频率或暂停刷新
+        if (!lodController.shouldRun(updateCycle++)) {
             return;
         }
 
-        // 获取所有活跃墓碑并更新全息图
-        Map<Location, PlayerTombstone> activeTombstones = tombstoneManager.getActiveTombstones();
-        for (Map.Entry<Location, PlayerTombstone> entry : activeTombstones.entrySet()) {
-            Location location = entry.getKey();
-            PlayerTombstone tombstone = entry.getValue();
-
-            // 只更新存在全息图的墓碑
-            if (holograms.containsKey(location)) {
-                updateHologram(tombstone);
+        long now = System.currentTimeMillis();
+        for (Hologram hologram : holograms.values()) {
+            if (now >= hologram.nextRefresh && visibilityTracker.isVisible(hologram.tombstone.getLocation())) {
+                refreshHologram(hologram, now);
             }
         }
     }
@@ -294,15 +426,16 @@ public class HologramUtil {
         }
         
         // 移除所有全息图
-        for (List<ArmorStand> armorStands : holograms.values()) {
-            for (ArmorStand armorStand : armorStands) {
-                if (armorStand != null && !armorStand.isDead()) {
-                    armorStand.remove();
+        for (Hologram hologram : holograms.values()) {
+            for (Entity entity : hologram.entities) {
+                if (entity != null && !entity.isDead()) {
+                    entity.remove();
                 }
             }
         }
         
         holograms.clear();
+        ownerNames.clear();
     }
     
     /**
@@ -325,4 +458,47 @@ public class HologramUtil {
     public int getHologramCount() {
         return holograms.size();
     }
+
+    /**
+     * 全息图 - 一个墓碑的全息图实体、内容模板和上次推送的内容
+     */
+    private static final class Hologram {
+
+        private final PlayerTombstone tombstone;
+        private final List<Entity> entities;
+        private final String[] templates;
+        private final boolean dynamic;
+        private List<String> lines;
+        private long nextRefresh;
+
+        private Hologram(@NotNull PlayerTombstone tombstone, @NotNull List<Entity> entities,
+                         @NotNull String[] templates, @NotNull List<String> lines) {
+            this.tombstone = tombstone;
+            this.entities = entities;
+            this.templates = templates;
+            this.lines = lines;
+
+            boolean hasProtection = false;
+            for (String template : templates) {
+                hasProtection |= template.contains("{protection}");
+            }
+            this.dynamic = hasProtection;
+            scheduleNextRefresh(System.currentTimeMillis());
+        }
+
+        /**
+         * 计算下一次需要刷新的时间
+         * 保护剩余时间按显示精度向下取整，刷新时间为显示值下一次变化的时刻；已过期或不显示剩余时间的全息图不再刷新
+         *
+         * @param now 当前时间
+         */
+        private void scheduleNextRefresh(long now) {
+            long remaining = tombstone.getProtectionExpire() - now;
+            if (!dynamic || remaining <= 0) {
+                nextRefresh = Long.MAX_VALUE;
+                return;
+            }
+            nextRefresh = now + remaining % TimeUtil.getRemainingTimeUnit(remaining) + 1;
+        }
+    }
 }
@@ -0,0 +1,497 @@
+package cn.i7mc.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * 背包编码工具类 - 将整个背包打包为单个二进制块
+ * 结构: 魔数 | 位图长度 | 槽位位图 | 每个槽位的(偏移, 压缩长度, 原始长度, 标记) | 各槽位独立压缩的数据
+ * 每个槽位独立压缩，读取或移除单个物品时无需解压其他槽位
+ * ItemStack.serializeAsBytes的结果本身是GZIP压缩的NBT，编码时先去掉GZIP外层，再用共享预设字典压缩原始NBT，
+ * 解码时重新套上不压缩的GZIP外层，交给ItemStack.deserializeBytes读取
+ * 另提供物品摘要（类型、数量、数据版本）的编码，摘要与背包数据分开存储
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class InventoryCodec {
+
+    /**
+     * 格式标识 "PDI2"
+     */
+    private static final int MAGIC = 0x50444932;
+
+    /**
+     * 摘要格式标识 "PDH1"
+     */
+    private static final int HEADER_MAGIC = 0x50444831;
+    private static final int ENTRY_SIZE = Integer.BYTES * 4;
+
+    /**
+     * 条目标记：数据经过压缩
+     */
+    private static final int FLAG_DEFLATED = 1;
+
+    /**
+     * 条目标记：原始数据带有GZIP外层，解码时需要重新套上
+     */
+    private static final int FLAG_GZIP = 2;
+
+    /**
+     * 物品NBT中常见的字段名和命名空间，作为每个槽位压缩的预设字典
+     * 单个物品的NBT通常只有几百字节，没有字典时重复的字段名几乎无法压缩
+     * 字典一旦写入数据就不能修改，需要调整时必须使用新的格式标识
+     */
+    private static final byte[] DICTIONARY = (
+        "DataVersionCountidtagDamageRepairCostUnbreakableHideFlagsCustomModelData"
+        + "displayNameLoreColortextextraitalicbolditalicfalsecolor"
+        + "EnchantmentsStoredEnchantmentslvlAttributeModifiersAttributeNameAmountOperationUUIDSlot"
+        + "PublicBukkitValuesBlockEntityTagSkullOwnerPropertiesValueSignaturetexturesItemsPotionCustomPotionEffects"
+        + "minecraft:unbreakingminecraft:mendingminecraft:protectionminecraft:sharpnessminecraft:efficiency"
+        + "minecraft:fortuneminecraft:lootingminecraft:power"
+        + "minecraft:netherite_minecraft:diamond_minecraft:iron_minecraft:golden_"
+        + "swordpickaxeaxeshovelhoehelmetchestplateleggingsbootsminecraft:"
+    ).getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 编码背包
+     * 统一的背包打包方法
+     *
+     * @param slots 槽位索引到物品序列化数据的映射
+     * @return 打包后的数据
+     */
+    @NotNull
+    public static byte[] encode(@NotNull SortedMap<Integer, byte[]> slots) {
+        int maxSlot = slots.isEmpty() ? 0 : slots.lastKey();
+        long[] bitmap = new long[(maxSlot >> 6) + 1];
+        byte[][] compressed = new byte[slots.size()][];
+        int[] rawLengths = new int[slots.size()];
+        int[] flags = new int[slots.size()];
+
+        int index = 0;
+        int payloadSize = 0;
+        for (Map.Entry<Integer, byte[]> entry : slots.entrySet()) {
+            int slot = entry.getKey();
+            if (slot < 0) {
+                throw new IllegalArgumentException("无效的槽位索引: " + slot);
+            }
+            bitmap[slot >> 6] |= 1L << (slot & 63);
+
+            // 去掉GZIP外层后压缩原始NBT
+            byte[] raw = entry.getValue();
+            byte[] nbt = isGzip(raw) ? gunzip(raw) : null;
+            if (nbt != null) {
+                raw = nbt;
+                flags[index] |= FLAG_GZIP;
+            }
+
+            byte[] deflated = compress(raw);
+            if (deflated.length < raw.length) {
+                compressed[index] = deflated;
+                flags[index] |= FLAG_DEFLATED;
+            } else {
+                compressed[index] = raw;
+            }
+            rawLengths[index] = raw.length;
+            payloadSize += compressed[index].length;
+            index++;
+        }
+
+        return write(bitmap, compressed, rawLengths, flags, payloadSize);
+    }
+
+    /**
+     * 读取单个槽位
+     * 统一的槽位读取方法，只解压目标槽位
+     *
+     * @param blob 打包数据
+     * @param slot 槽位索引
+     * @return 物品序列化数据，槽位为空时返回null
+     */
+    @Nullable
+    public static byte[] readSlot(@NotNull byte[] blob, int slot) {
+        ByteBuffer buffer = open(blob);
+        long[] bitmap = readBitmap(buffer);
+        int rank = rank(bitmap, slot);
+        if (rank < 0) {
+            return null;
+        }
+        return readEntry(blob, buffer.position() + rank * ENTRY_SIZE);
+    }
+
+    /**
+     * 解码全部槽位
+     * 统一的背包解包方法
+     *
+     * @param blob 打包数据
+     * @return 按槽位顺序排列的槽位索引到物品序列化数据的映射
+     */
+    @NotNull
+    public static Map<Integer, byte[]> decodeAll(@NotNull byte[] blob) {
+        ByteBuffer buffer = open(blob);
+        long[] bitmap = readBitmap(buffer);
+        int entryStart = buffer.position();
+        Map<Integer, byte[]> slots = new LinkedHashMap<>();
+
+        int rank = 0;
+        for (int word = 0; word < bitmap.length; word++) {
+            long bits = bitmap[word];
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                slots.put(slot, readEntry(blob, entryStart + rank * ENTRY_SIZE));
+                rank++;
+                bits &= bits - 1;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * 移除单个槽位
+     * 统一的槽位移除方法，其余槽位的压缩数据原样复制
+     *
+     * @param blob 打包数据
+     * @param slot 槽位索引
+     * @return 新的打包数据，移除后背包为空时返回null
+     */
+    @Nullable
+    public static byte[] removeSlot(@NotNull byte[] blob, int slot) {
+        ByteBuffer buffer = open(blob);
+        long[] bitmap = readBitmap(buffer);
+        int removedRank = rank(bitmap, slot);
+        if (removedRank < 0) {
+            return blob;
+        }
+
+        int count = countSlots(bitmap);
+        if (count == 1) {
+            return null;
+        }
+
+        int entryStart = buffer.position();
+        byte[][] compressed = new byte[count - 1][];
+        int[] rawLengths = new int[count - 1];
+        int[] flags = new int[count - 1];
+        int payloadSize = 0;
+        int target = 0;
+        for (int rank = 0; rank < count; rank++) {
+            if (rank == removedRank) {
+                continue;
+            }
+            ByteBuffer entry = ByteBuffer.wrap(blob, entryStart + rank * ENTRY_SIZE, ENTRY_SIZE);
+            int offset = entry.getInt();
+            int length = entry.getInt();
+            rawLengths[target] = entry.getInt();
+            flags[target] = entry.getInt();
+            compressed[target] = new byte[length];
+            System.arraycopy(blob, offset, compressed[target], 0, length);
+            payloadSize += length;
+            target++;
+        }
+
+        bitmap[slot >> 6] &= ~(1L << (slot & 63));
+        return write(bitmap, compressed, rawLengths, flags, payloadSize);
+    }
+
+    /**
+     * 获取已占用的槽位数量
+     *
+     * @param blob 打包数据
+     * @return 槽位数量
+     */
+    public static int getSlotCount(@NotNull byte[] blob) {
+        return countSlots(readBitmap(open(blob)));
+    }
+
+    /**
+     * 编码物品摘要
+     * 统一的摘要打包方法，摘要不压缩，读取时无需解析物品NBT
+     *
+     * @param headers 槽位索引到物品摘要的映射
+     * @return 打包后的摘要数据
+     */
+    @NotNull
+    public static byte[] encodeHeaders(@NotNull SortedMap<Integer, SlotHeader> headers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + headers.size() * 24);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(HEADER_MAGIC);
+            output.writeInt(headers.size());
+            for (Map.Entry<Integer, SlotHeader> entry : headers.entrySet()) {
+                output.writeInt(entry.getKey());
+                output.writeInt(entry.getValue().dataVersion());
+                output.writeInt(entry.getValue().amount());
+                output.writeUTF(entry.getValue().material());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("编码物品摘要失败", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解码物品摘要
+     * 统一的摘要解包方法，数据缺失或损坏时返回空映射
+     *
+     * @param data 打包后的摘要数据
+     * @return 按槽位排序的物品摘要映射
+     */
+    @NotNull
+    public static SortedMap<Integer, SlotHeader> decodeHeaders(@Nullable byte[] data) {
+        SortedMap<Integer, SlotHeader> headers = new TreeMap<>();
+        if (data == null) {
+            return headers;
+        }
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (input.readInt() != HEADER_MAGIC) {
+                return headers;
+            }
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                int slot = input.readInt();
+                int dataVersion = input.readInt();
+                int amount = input.readInt();
+                headers.put(slot, new SlotHeader(input.readUTF(), amount, dataVersion));
+            }
+        } catch (IOException e) {
+            headers.clear();
+        }
+        return headers;
+    }
+
+    /**
+     * 物品摘要记录类
+     * 物品类型、数量和序列化时的数据版本
+     */
+    public record SlotHeader(
+        String material,
+        int amount,
+        int dataVersion
+    ) {}
+
+    /**
+     * 写出打包数据
+     */
+    @NotNull
+    private static byte[] write(@NotNull long[] bitmap, @NotNull byte[][] compressed, @NotNull int[] rawLengths,
+                                @NotNull int[] flags, int payloadSize) {
+        int headerSize = Integer.BYTES * 2 + bitmap.length * Long.BYTES + compressed.length * ENTRY_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + payloadSize);
+        buffer.putInt(MAGIC);
+        buffer.putInt(bitmap.length);
+        for (long word : bitmap) {
+            buffer.putLong(word);
+        }
+
+        int offset = headerSize;
+        for (int i = 0; i < compressed.length; i++) {
+            buffer.putInt(offset);
+            buffer.putInt(compressed[i].length);
+            buffer.putInt(rawLengths[i]);
+            buffer.putInt(flags[i]);
+            offset += compressed[i].length;
+        }
+        for (byte[] data : compressed) {
+            buffer.put(data);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 校验并打开打包数据
+     */
+    @NotNull
+    private static ByteBuffer open(@NotNull byte[] blob) {
+        ByteBuffer buffer = ByteBuffer.wrap(blob);
+        int magic = blob.length < Integer.BYTES * 2 ? 0 : buffer.getInt();
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("无效的背包数据格式");
+        }
+        return buffer;
+    }
+
+    /**
+     * 读取槽位位图
+     */
+    @NotNull
+    private static long[] readBitmap(@NotNull ByteBuffer buffer) {
+        int words = buffer.getInt();
+        if (words < 0 || words > buffer.remaining() / Long.BYTES) {
+            throw new IllegalArgumentException("无效的背包位图长度: " + words);
+        }
+        long[] bitmap = new long[words];
+        for (int i = 0; i < words; i++) {
+            bitmap[i] = buffer.getLong();
+        }
+        return bitmap;
+    }
+
+    /**
+     * 计算槽位在条目表中的序号
+     *
+     * @return 序号，槽位为空时返回-1
+     */
+    private static int rank(@NotNull long[] bitmap, int slot) {
+        int word = slot >> 6;
+        if (slot < 0 || word >= bitmap.length || (bitmap[word] & (1L << (slot & 63))) == 0) {
+            return -1;
+        }
+
+        int rank = 0;
+        for (int i = 0; i < word; i++) {
+            rank += Long.bitCount(bitmap[i]);
+        }
+        return rank + Long.bitCount(bitmap[word] & ((1L << (slot & 63)) - 1));
+    }
+
+    /**
+     * 统计位图中的槽位数量
+     */
+    private static int countSlots(@NotNull long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * 读取并解压单个条目
+     */
+    @NotNull
+    private static byte[] readEntry(@NotNull byte[] blob, int entryPosition) {
+        ByteBuffer entry = ByteBuffer.wrap(blob, entryPosition, ENTRY_SIZE);
+        int offset = entry.getInt();
+        int length = entry.getInt();
+        int rawLength = entry.getInt();
+        if (offset < 0 || length < 0 || rawLength < 0 || offset + length > blob.length) {
+            throw new IllegalArgumentException("无效的背包条目偏移");
+        }
+
+        int flags = entry.getInt();
+        byte[] raw = (flags & FLAG_DEFLATED) != 0
+            ? decompress(blob, offset, length, rawLength)
+            : copy(blob, offset, length);
+        return (flags & FLAG_GZIP) != 0 ? gzip(raw) : raw;
+    }
+
+    /**
+     * 复制数据片段
+     */
+    @NotNull
+    private static byte[] copy(@NotNull byte[] blob, int offset, int length) {
+        byte[] data = new byte[length];
+        System.arraycopy(blob, offset, data, 0, length);
+        return data;
+    }
+
+    /**
+     * 检查数据是否带有GZIP外层
+     */
+    private static boolean isGzip(@NotNull byte[] data) {
+        return data.length > 18 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B;
+    }
+
+    /**
+     * 去掉GZIP外层
+     *
+     * @return 原始数据，数据损坏时返回null（按原样存储）
+     */
+    @Nullable
+    private static byte[] gunzip(@NotNull byte[] data) {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return input.readAllBytes();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 重新套上GZIP外层
+     * 数据已经压缩存储，外层只使用存储块，不再压缩
+     */
+    @NotNull
+    private static byte[] gzip(@NotNull byte[] raw) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length + 32);
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes, Math.max(512, raw.length)) {
+            {
+                def.setLevel(Deflater.NO_COMPRESSION);
+            }
+        }) {
+            output.write(raw);
+        } catch (IOException e) {
+            throw new IllegalStateException("物品数据封装失败", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 使用预设字典压缩单个槽位数据
+     */
+    @NotNull
+    private static byte[] compress(@NotNull byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(raw.length);
+            byte[] chunk = new byte[Math.max(64, raw.length)];
+            while (!deflater.finished()) {
+                output.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 使用预设字典解压单个槽位数据
+     */
+    @NotNull
+    private static byte[] decompress(@NotNull byte[] blob, int offset, int length, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(blob, offset, length);
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, rawLength - read);
+                if (n == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY);
+                    continue;
+                }
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != rawLength) {
+                throw new IllegalArgumentException("背包条目解压长度不符");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("背包条目解压失败", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package cn.i7mc.utils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * long键映射 - 开放寻址（线性探测）实现，键以原始long存储，不产生装箱
+ * 用于墓碑ID索引等高频查找场景，非线程安全
+ *
+ * @param <V> 值类型
+ * @author saga
+ * @version 1.0.0
+ */
+public final class LongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    // 键0作为空槽标记，单独存放
+    private boolean hasZeroKey;
+    private Object zeroValue;
+
+    /**
+     * 构造函数
+     */
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param expectedSize 预计元素数量
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSizeFor(Math.max(DEFAULT_CAPACITY, (int) Math.ceil(expectedSize / LOAD_FACTOR))));
+    }
+
+    /**
+     * 获取键对应的值
+     *
+     * @param key 键
+     * @return 值，不存在返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? (V) zeroValue : null;
+        }
+
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * 检查键是否存在
+     *
+     * @param key 键
+     * @return 是否存在
+     */
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 放入键值对
+     *
+     * @param key 键
+     * @param value 值
+     * @return 旧值，不存在返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, @NotNull V value) {
+        if (key == 0) {
+            V previous = hasZeroKey ? (V) zeroValue : null;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size >= resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * 移除键
+     *
+     * @param key 键
+     * @return 被移除的值，不存在返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V previous = (V) zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+
+        int index = indexOf(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                shiftKeysBack(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * 获取元素数量
+     *
+     * @return 元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 检查是否为空
+     *
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空映射
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * 遍历所有值
+     *
+     * @param action 处理方法
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(@NotNull Consumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept((V) zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * 删除后回移同一探测链上的后续元素，保持线性探测不变式（无墓碑标记）
+     *
+     * @param removedIndex 被删除的槽位
+     */
+    private void shiftKeysBack(int removedIndex) {
+        int gap = removedIndex;
+        int index = (gap + 1) & mask;
+        while (keys[index] != 0) {
+            int home = indexOf(keys[index]);
+            // 元素的理想位置不在(gap, index]区间内时，可以移动到空位
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                keys[gap] = keys[index];
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+    }
+
+    /**
+     * 扩容并重新散列
+     *
+     * @param capacity 新容量（2的幂）
+     */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int index = indexOf(key);
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * 分配存储数组
+     *
+     * @param capacity 容量（2的幂）
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * 计算键的起始槽位
+     *
+     * @param key 键
+     * @return 槽位索引
+     */
+    private int indexOf(long key) {
+        // 墓碑ID为连续整数，混合高低位避免聚集
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * 计算不小于指定值的2的幂
+     *
+     * @param capacity 最小容量
+     * @return 2的幂容量
+     */
+    private static int tableSizeFor(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        return Math.max(DEFAULT_CAPACITY, Math.min(size, 1 << 30));
+    }
+}
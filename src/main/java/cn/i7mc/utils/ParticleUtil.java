@@ -5,17 +5,19 @@ import cn.i7mc.managers.ConfigManager;
 import cn.i7mc.tombstones.PlayerTombstone;
 import org.bukkit.Location;
 import org.bukkit.Particle;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * 粒子效果工具类 - 统一处理粒子效果相关逻辑
- * 遵循统一方法原则，避免重复造轮子
+ * 所有墓碑共用一个每tick运行的调度任务，发射点按下标错开相位，均匀分布到粒子间隔内的每个tick
+ * 发射点只在墓碑所在区块加载期间存在，区块卸载时由墓碑管理器移除，附近没有玩家时跳过生成
  * 
  * @author saga
  * @version 1.0.0
@@ -24,45 +26,99 @@ public class ParticleUtil {
     
     private final PlayerDeadManager plugin;
     private final ConfigManager configManager;
-    private final Map<Location, BukkitTask> particleTasks;
+    private final VisibilityTracker visibilityTracker;
+    private final VisualLodController lodController;
+    // 墓碑位置到发射点下标的映射
+    private final Map<Location, Integer> emitterIndex;
+    // 发射点数组，按下标对应，移除时用最后一个发射点填补空位
+    private Location[] emitterKeys;
+    private World[] emitterWorlds;
+    private double[] emitterCoords;
+    private int emitterCount;
+    private BukkitTask schedulerTask;
+    private long tick;
+
+    // 重载时解析一次的粒子设置
+    private boolean enabled;
+    private Particle particleType;
+    private int particleCount;
+    private double particleRange;
+    private int interval;
     
     /**
      * 构造函数
      * 
      * @param plugin 插件实例
      * @param configManager 配置管理器
+     * @param visibilityTracker 可见性跟踪器
+     * @param lodController 视觉效果等级控制器
      */
     public ParticleUtil(@NotNull PlayerDeadManager plugin,
-                       @NotNull ConfigManager configManager) {
+                       @NotNull ConfigManager configManager,
+                       @NotNull VisibilityTracker visibilityTracker,
+                       @NotNull VisualLodController lodController) {
         this.plugin = plugin;
         this.configManager = configManager;
-        this.particleTasks = new HashMap<>();
+        this.visibilityTracker = visibilityTracker;
+        this.lodController = lodController;
+        this.emitterIndex = new HashMap<>();
+        this.emitterKeys = new Location[16];
+        this.emitterWorlds = new World[16];
+        this.emitterCoords = new double[16 * 3];
+
+        reloadSettings();
+    }
+
+    /**
+     * 重新读取粒子设置
+     * 统一的设置解析方法，在构造和配置重载时调用，调度任务不再读取配置
+     */
+    public void reloadSettings() {
+        enabled = configManager.getBoolean("particles.enabled", true);
+        particleType = resolveParticleType();
+        particleCount = configManager.getInt("particles.count", 5);
+        particleRange = configManager.getDouble("particles.range", 0.5);
+        interval = Math.max(1, configManager.getInt("particles.interval", 20));
     }
     
     /**
      * 为墓碑创建粒子效果
-     * 统一的粒子效果创建方法
+     * 统一的粒子效果创建方法，只添加发射点，不创建新任务
      * 
      * @param tombstone 墓碑实例
+     * @return 墓碑是否有粒子效果，粒子效果关闭时返回false
      */
-    public void createParticleEffect(@NotNull PlayerTombstone tombstone) {
-        if (!configManager.getBoolean("particles.enabled", true)) {
-            return;
+    public boolean createParticleEffect(@NotNull PlayerTombstone tombstone) {
+        if (!enabled) {
+            return false;
         }
         
         Location location = tombstone.getLocation();
-        
-        // 如果已经有粒子效果，先移除
-        removeParticleEffect(location);
-        
-        // 创建新的粒子效果任务
-        BukkitTask task = new ParticleTask(location).runTaskTimer(
-            plugin, 
-            0, 
-            configManager.getInt("particles.interval", 20)
-        );
-        
-        particleTasks.put(location, task);
+        if (location.getWorld() == null) {
+            return false;
+        }
+        if (emitterIndex.containsKey(location)) {
+            return true;
+        }
+
+        if (emitterCount == emitterKeys.length) {
+            int capacity = emitterKeys.length * 2;
+            emitterKeys = Arrays.copyOf(emitterKeys, capacity);
+            emitterWorlds = Arrays.copyOf(emitterWorlds, capacity);
+            emitterCoords = Arrays.copyOf(emitterCoords, capacity * 3);
+        }
+
+        // 中心位置并稍微抬高
+        int index = emitterCount++;
+        emitterKeys[index] = location;
+        emitterWorlds[index] = location.getWorld();
+        emitterCoords[index * 3] = location.getBlockX() + 0.5;
+        emitterCoords[index * 3 + 1] = location.getBlockY() + 1;
+        emitterCoords[index * 3 + 2] = location.getBlockZ() + 0.5;
+        emitterIndex.put(location, index);
+
+        startScheduler();
+        return true;
     }
     
     /**
@@ -72,9 +128,25 @@ public class ParticleUtil {
      * @param location 墓碑位置
      */
     public void removeParticleEffect(@NotNull Location location) {
-        BukkitTask task = particleTasks.remove(location);
-        if (task != null) {
-            task.cancel();
+        Integer removed = emitterIndex.remove(location);
+        if (removed == null) {
+            return;
+        }
+
+        // 用最后一个发射点填补空位，保持数组紧凑
+        int index = removed;
+        int last = --emitterCount;
+        if (index != last) {
+            emitterKeys[index] = emitterKeys[last];
+            emitterWorlds[index] = emitterWorlds[last];
+            System.arraycopy(emitterCoords, last * 3, emitterCoords, index * 3, 3);
+            emitterIndex.put(emitterKeys[index], index);
+        }
+        emitterKeys[last] = null;
+        emitterWorlds[last] = null;
+
+        if (emitterCount == 0) {
+            stopScheduler();
         }
     }
     
@@ -89,6 +161,11 @@ public class ParticleUtil {
         if (!configManager.getBoolean("notifications.visual-guidance", true)) {
             return;
         }
+
+        // 服务器负载过高时不显示引导
+        if (lodController.getLevel() == VisualLodController.Level.OFF) {
+            return;
+        }
         
         Location playerLocation = player.getLocation();
         double distance = LocationUtil.getDistance(playerLocation, targetLocation);
@@ -100,37 +177,53 @@ public class ParticleUtil {
         }
         
         // 创建引导粒子线
-        createParticleLine(playerLocation, targetLocation, player);
+        World world = targetLocation.getWorld();
+        if (world == null || !world.equals(playerLocation.getWorld())) {
+            return;
+        }
+        drawGuidancePath(player, playerLocation.getX(), playerLocation.getY(), playerLocation.getZ(),
+            targetLocation.getX(), targetLocation.getY(), targetLocation.getZ(), distance);
     }
     
     /**
-     * 创建粒子线
-     * 统一的粒子线创建方法
+     * 绘制引导粒子路径
+     * 统一的引导路径绘制方法，从起点向终点方向绘制不超过最大长度的粒子线，只对指定玩家显示
+     * 直接按坐标计算每个点，不创建Location对象，调用方需保证起点和终点在同一世界
      * 
-     * @param start 起始位置
-     * @param end 结束位置
      * @param player 观看的玩家
+     * @param startX 起点X坐标
+     * @param startY 起点Y坐标
+     * @param startZ 起点Z坐标
+     * @param endX 终点X坐标
+     * @param endY 终点Y坐标
+     * @param endZ 终点Z坐标
+     * @param maxLength 路径最大长度
      */
-    private void createParticleLine(@NotNull Location start, @NotNull Location end, @NotNull Player player) {
-        if (!start.getWorld().equals(end.getWorld())) {
+    public void drawGuidancePath(@NotNull Player player, double startX, double startY, double startZ,
+                                 double endX, double endY, double endZ, double maxLength) {
+        double dx = endX - startX;
+        double dy = endY - startY;
+        double dz = endZ - startZ;
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (distance < 0.5 || maxLength <= 0) {
             return;
         }
         
-        double distance = start.distance(end);
-        int points = Math.min((int) distance * 2, 50); // 限制粒子数量
+        double length = Math.min(distance, maxLength);
+        int points = lodController.scaleParticleCount(Math.min((int) length * 2, 50)); // 限制粒子数量，负载高时按等级减少
+        if (points <= 0) {
+            return;
+        }
         
+        // 每个点沿方向前进的比例
+        double step = length / distance / points;
         for (int i = 0; i <= points; i++) {
-            double ratio = (double) i / points;
-            Location particleLocation = start.clone().add(
-                (end.getX() - start.getX()) * ratio,
-                (end.getY() - start.getY()) * ratio + 1, // 稍微抬高
-                (end.getZ() - start.getZ()) * ratio
-            );
-            
-            // 只对指定玩家显示粒子
+            double ratio = step * i;
             player.spawnParticle(
-                getParticleType(),
-                particleLocation,
+                particleType,
+                startX + dx * ratio,
+                startY + dy * ratio + 1, // 稍微抬高
+                startZ + dz * ratio,
                 1,
                 0, 0, 0,
                 0
@@ -139,13 +232,13 @@ public class ParticleUtil {
     }
     
     /**
-     * 获取配置的粒子类型
+     * 解析配置的粒子类型
      * 统一的粒子类型获取方法
      * 
      * @return 粒子类型
      */
     @NotNull
-    private Particle getParticleType() {
+    private Particle resolveParticleType() {
         String particleName = configManager.getString("particles.type", "SOUL");
         
         try {
@@ -156,18 +249,67 @@ public class ParticleUtil {
         }
     }
     
+    /**
+     * 启动共享调度任务
+     */
+    private void startScheduler() {
+        if (schedulerTask == null) {
+            schedulerTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::emitParticles, 1L, 1L);
+        }
+    }
+
+    /**
+     * 停止共享调度任务
+     */
+    private void stopScheduler() {
+        if (schedulerTask != null) {
+            schedulerTask.cancel();
+            schedulerTask = null;
+        }
+    }
+
+    /**
+     * 生成本tick相位的粒子
+     * 每个发射点按下标分配到粒子间隔内的一个tick，每tick只处理约 发射点数量/间隔 个发射点
+     * 粒子数量和生成频率按视觉效果等级调整
+     */
+    private void emitParticles() {
+        long currentTick = tick++;
+        int phase = (int) (currentTick % interval);
+        if (!enabled || !lodController.shouldRun(currentTick / interval)) {
+            return;
+        }
+
+        int count = lodController.scaleParticleCount(particleCount);
+
+        for (int i = phase; i < emitterCount; i += interval) {
+            // 附近没有玩家时跳过
+            if (!visibilityTracker.isVisible(emitterKeys[i])) {
+                continue;
+            }
+
+            emitterWorlds[i].spawnParticle(
+                particleType,
+                emitterCoords[i * 3],
+                emitterCoords[i * 3 + 1],
+                emitterCoords[i * 3 + 2],
+                count,
+                particleRange, particleRange, particleRange,
+                0
+            );
+        }
+    }
+
     /**
      * 关闭粒子效果系统
      * 统一的关闭方法
      */
     public void shutdown() {
-        // 取消所有粒子任务
-        for (BukkitTask task : particleTasks.values()) {
-            if (task != null) {
-                task.cancel();
-            }
-        }
-        particleTasks.clear();
+        stopScheduler();
+        Arrays.fill(emitterKeys, 0, emitterCount, null);
+        Arrays.fill(emitterWorlds, 0, emitterCount, null);
+        emitterCount = 0;
+        emitterIndex.clear();
     }
     
     /**
@@ -178,7 +320,7 @@ public class ParticleUtil {
      * @return 是否存在粒子效果
      */
     public boolean hasParticleEffect(@NotNull Location location) {
-        return particleTasks.containsKey(location);
+        return emitterIndex.containsKey(location);
     }
     
     /**
@@ -188,46 +330,6 @@ public class ParticleUtil {
      * @return 粒子效果数量
      */
     public int getActiveEffectCount() {
-        return particleTasks.size();
-    }
-    
-    /**
-     * 粒子效果任务类
-     * 统一的粒子任务处理
-     */
-    private class ParticleTask extends BukkitRunnable {
-        
-        private final Location location;
-        
-        public ParticleTask(@NotNull Location location) {
-            this.location = location.clone().add(0.5, 1, 0.5); // 中心位置并稍微抬高
-        }
-        
-        @Override
-        public void run() {
-            if (location.getWorld() == null) {
-                cancel();
-                return;
-            }
-            
-            // 检查是否还启用粒子效果
-            if (!configManager.getBoolean("particles.enabled", true)) {
-                cancel();
-                return;
-            }
-            
-            // 生成粒子效果
-            Particle particleType = getParticleType();
-            int count = configManager.getInt("particles.count", 5);
-            double range = configManager.getDouble("particles.range", 0.5);
-            
-            location.getWorld().spawnParticle(
-                particleType,
-                location,
-                count,
-                range, range, range,
-                0
-            );
-        }
+        return emitterCount;
     }
 }
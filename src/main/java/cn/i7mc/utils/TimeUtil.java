@@ -211,6 +211,23 @@ public class TimeUtil {
         return Math.max(0, remaining);
     }
     
+    /**
+     * 获取剩余时间的显示精度
+     * 与formatRemainingTime的格式一致：超过一天显示到小时，超过一小时显示到分钟，否则显示到秒
+     *
+     * @param remainingMillis 剩余时间（毫秒）
+     * @return 显示精度（毫秒）
+     */
+    public static long getRemainingTimeUnit(long remainingMillis) {
+        if (remainingMillis >= TimeUnit.DAYS.toMillis(1)) {
+            return TimeUnit.HOURS.toMillis(1);
+        }
+        if (remainingMillis >= TimeUnit.HOURS.toMillis(1)) {
+            return TimeUnit.MINUTES.toMillis(1);
+        }
+        return TimeUnit.SECONDS.toMillis(1);
+    }
+
     /**
      * 将分钟转换为毫秒
      * 统一的时间单位转换方法
@@ -0,0 +1,191 @@
+package cn.i7mc.utils;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 墓碑位置查找器 - 按与死亡点的距离由近到远搜索可放置位置
+ * 主线程只负责截取区块快照，快照上的搜索可以在异步线程进行，判断规则统一使用LocationUtil.isReplaceable
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class TombstonePlacementFinder {
+
+    // 按距离排序的搜索偏移量，每三个元素为一组(dx, dy, dz)
+    private int[] offsets = new int[0];
+    private int offsetsRadius = -1;
+
+    /**
+     * 截取搜索区域的区块快照
+     * 必须在主线程调用，未加载的区块不会被加载，其中的位置视为不可放置
+     *
+     * @param origin 死亡位置
+     * @param radius 搜索半径
+     * @return 搜索区域，世界不存在返回null
+     */
+    @Nullable
+    public SearchArea capture(@NotNull Location origin, int radius) {
+        World world = origin.getWorld();
+        if (world == null) {
+            return null;
+        }
+
+        int x = origin.getBlockX();
+        int z = origin.getBlockZ();
+        int minChunkX = (x - radius) >> 4;
+        int minChunkZ = (z - radius) >> 4;
+        int maxChunkX = (x + radius) >> 4;
+        int maxChunkZ = (z + radius) >> 4;
+
+        ChunkSnapshot[][] snapshots = new ChunkSnapshot[maxChunkX - minChunkX + 1][maxChunkZ - minChunkZ + 1];
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    snapshots[chunkX - minChunkX][chunkZ - minChunkZ] =
+                        world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false);
+                }
+            }
+        }
+
+        return new SearchArea(world, x, origin.getBlockY(), z, world.getMinHeight(), world.getMaxHeight(),
+            minChunkX, minChunkZ, snapshots, getOffsets(radius));
+    }
+
+    /**
+     * 在区块快照中查找最近的可放置位置
+     * 只读取快照，可以在任意线程调用
+     *
+     * @param area 搜索区域
+     * @return 最近的可放置位置，未找到返回null
+     */
+    @Nullable
+    public Location findNearest(@NotNull SearchArea area) {
+        int[] searchOffsets = area.offsets;
+        for (int i = 0; i < searchOffsets.length; i += 3) {
+            int x = area.originX + searchOffsets[i];
+            int y = area.originY + searchOffsets[i + 1];
+            int z = area.originZ + searchOffsets[i + 2];
+            if (y < area.minY || y >= area.maxY) {
+                continue;
+            }
+
+            ChunkSnapshot snapshot = area.snapshots[(x >> 4) - area.minChunkX][(z >> 4) - area.minChunkZ];
+            if (snapshot != null && LocationUtil.isReplaceable(snapshot.getBlockType(x & 15, y, z & 15))) {
+                return new Location(area.world, x, y, z);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 直接读取世界方块查找最近的可放置位置
+     * 必须在主线程调用，用于快照结果在放置前已失效时的回退
+     *
+     * @param origin 死亡位置
+     * @param radius 搜索半径
+     * @return 最近的可放置位置，未找到返回null
+     */
+    @Nullable
+    public Location findNearestLoaded(@NotNull Location origin, int radius) {
+        World world = origin.getWorld();
+        if (world == null) {
+            return null;
+        }
+
+        int[] searchOffsets = getOffsets(radius);
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+        for (int i = 0; i < searchOffsets.length; i += 3) {
+            int x = origin.getBlockX() + searchOffsets[i];
+            int y = origin.getBlockY() + searchOffsets[i + 1];
+            int z = origin.getBlockZ() + searchOffsets[i + 2];
+            if (y < minY || y >= maxY || !world.isChunkLoaded(x >> 4, z >> 4)) {
+                continue;
+            }
+
+            Material type = world.getBlockAt(x, y, z).getType();
+            if (LocationUtil.isReplaceable(type)) {
+                return new Location(world, x, y, z);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取按距离排序的搜索偏移量
+     * 搜索范围与原有逻辑一致：水平方向±radius，垂直方向0到radius（只向上搜索）
+     * 距离相同时优先更低的位置
+     *
+     * @param radius 搜索半径
+     * @return 偏移量数组
+     */
+    @NotNull
+    private int[] getOffsets(int radius) {
+        if (radius == offsetsRadius) {
+            return offsets;
+        }
+
+        List<int[]> candidates = new ArrayList<>();
+        for (int dy = 0; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    candidates.add(new int[] {dx, dy, dz});
+                }
+            }
+        }
+        candidates.sort(Comparator.<int[]>comparingInt(o -> o[0] * o[0] + o[1] * o[1] + o[2] * o[2])
+            .thenComparingInt(o -> o[1]));
+
+        int[] sorted = new int[candidates.size() * 3];
+        for (int i = 0; i < candidates.size(); i++) {
+            int[] offset = candidates.get(i);
+            sorted[i * 3] = offset[0];
+            sorted[i * 3 + 1] = offset[1];
+            sorted[i * 3 + 2] = offset[2];
+        }
+
+        offsets = sorted;
+        offsetsRadius = radius;
+        return sorted;
+    }
+
+    /**
+     * 搜索区域 - 死亡点周围的区块快照，创建后不可变
+     */
+    public static final class SearchArea {
+
+        private final World world;
+        private final int originX;
+        private final int originY;
+        private final int originZ;
+        private final int minY;
+        private final int maxY;
+        private final int minChunkX;
+        private final int minChunkZ;
+        private final ChunkSnapshot[][] snapshots;
+        private final int[] offsets;
+
+        private SearchArea(@NotNull World world, int originX, int originY, int originZ, int minY, int maxY,
+                           int minChunkX, int minChunkZ, @NotNull ChunkSnapshot[][] snapshots, @NotNull int[] offsets) {
+            this.world = world;
+            this.originX = originX;
+            this.originY = originY;
+            this.originZ = originZ;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.minChunkX = minChunkX;
+            this.minChunkZ = minChunkZ;
+            this.snapshots = snapshots;
+            this.offsets = offsets;
+        }
+    }
+}
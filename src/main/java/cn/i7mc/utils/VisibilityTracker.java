@@ -0,0 +1,190 @@
+package cn.i7mc.utils;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.ConfigManager;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 可见性跟踪器 - 统一判断墓碑附近是否有玩家能看到视觉效果
+ * 每个采样间隔读取一次所有玩家位置并按区块分组，粒子效果和全息图刷新只对可见距离内有玩家的墓碑执行
+ * 所有方法都必须在主线程调用
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class VisibilityTracker {
+
+    private final PlayerDeadManager plugin;
+    private final ConfigManager configManager;
+    // 每个世界中按区块分组的玩家位置
+    private final Map<UUID, LongObjectMap<List<Location>>> playersByChunk;
+    // 每个世界中与任一玩家的区块距离不超过可见半径的区块，用于快速排除远处的墓碑
+    private final Map<UUID, LongObjectMap<Boolean>> visibleChunks;
+    private BukkitTask sampleTask;
+    private boolean enabled;
+    private double viewDistanceSquared;
+    private int chunkRadius;
+    private long activeCount;
+    private long culledCount;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     * @param configManager 配置管理器
+     */
+    public VisibilityTracker(@NotNull PlayerDeadManager plugin, @NotNull ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.playersByChunk = new HashMap<>();
+        this.visibleChunks = new HashMap<>();
+
+        startSampleTask();
+    }
+
+    /**
+     * 检查位置附近是否有玩家
+     * 统一的视觉效果剔除方法，同时统计执行和跳过的次数
+     *
+     * @param location 墓碑位置
+     * @return 是否需要执行视觉效果
+     */
+    public boolean isVisible(@NotNull Location location) {
+        if (!enabled) {
+            activeCount++;
+            return true;
+        }
+
+        World world = location.getWorld();
+        if (world == null) {
+            culledCount++;
+            return false;
+        }
+
+        int chunkX = location.getBlockX() >> 4;
+        int chunkZ = location.getBlockZ() >> 4;
+        LongObjectMap<Boolean> worldVisible = visibleChunks.get(world.getUID());
+        if (worldVisible == null || !worldVisible.containsKey(Chunk.getChunkKey(chunkX, chunkZ))) {
+            culledCount++;
+            return false;
+        }
+
+        // 附近区块有玩家时再按实际距离判断
+        LongObjectMap<List<Location>> worldPlayers = playersByChunk.get(world.getUID());
+        for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
+            for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
+                List<Location> players = worldPlayers.get(Chunk.getChunkKey(chunkX + dx, chunkZ + dz));
+                if (players == null) {
+                    continue;
+                }
+                for (Location playerLocation : players) {
+                    if (playerLocation.distanceSquared(location) <= viewDistanceSquared) {
+                        activeCount++;
+                        return true;
+                    }
+                }
+            }
+        }
+
+        culledCount++;
+        return false;
+    }
+
+    /**
+     * 获取执行视觉效果的累计次数
+     *
+     * @return 执行次数
+     */
+    public long getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * 获取因附近没有玩家而跳过视觉效果的累计次数
+     *
+     * @return 跳过次数
+     */
+    public long getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * 关闭跟踪器
+     * 统一的关闭方法
+     */
+    public void shutdown() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+        playersByChunk.clear();
+        visibleChunks.clear();
+    }
+
+    /**
+     * 启动采样任务
+     * 统一的任务启动方法
+     */
+    private void startSampleTask() {
+        int sampleInterval = Math.max(1, configManager.getInt("visibility.sample-interval", 20));
+        sampleTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::sample, 0L, sampleInterval);
+    }
+
+    /**
+     * 采样所有玩家位置
+     * 按区块分组玩家位置，并标记每个玩家可见半径内的区块
+     */
+    private void sample() {
+        for (LongObjectMap<List<Location>> worldPlayers : playersByChunk.values()) {
+            worldPlayers.clear();
+        }
+        for (LongObjectMap<Boolean> worldVisible : visibleChunks.values()) {
+            worldVisible.clear();
+        }
+
+        enabled = configManager.getBoolean("visibility.enabled", true);
+        if (!enabled) {
+            return;
+        }
+
+        double viewDistance = Math.max(1.0, configManager.getDouble("visibility.view-distance", 64.0));
+        viewDistanceSquared = viewDistance * viewDistance;
+        chunkRadius = (int) Math.ceil(viewDistance / 16.0);
+
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            Location location = player.getLocation();
+            World world = location.getWorld();
+            if (world == null) {
+                continue;
+            }
+
+            int chunkX = location.getBlockX() >> 4;
+            int chunkZ = location.getBlockZ() >> 4;
+            LongObjectMap<List<Location>> worldPlayers = playersByChunk.computeIfAbsent(world.getUID(), id -> new LongObjectMap<>());
+            List<Location> players = worldPlayers.get(Chunk.getChunkKey(chunkX, chunkZ));
+            if (players == null) {
+                players = new ArrayList<>(1);
+                worldPlayers.put(Chunk.getChunkKey(chunkX, chunkZ), players);
+            }
+            players.add(location);
+
+            LongObjectMap<Boolean> worldVisible = visibleChunks.computeIfAbsent(world.getUID(), id -> new LongObjectMap<>());
+            for (int dx = -chunkRadius; dx <= chunkRadius; dx++) {
+                for (int dz = -chunkRadius; dz <= chunkRadius; dz++) {
+                    worldVisible.put(Chunk.getChunkKey(chunkX + dx, chunkZ + dz), Boolean.TRUE);
+                }
+            }
+        }
+    }
+}
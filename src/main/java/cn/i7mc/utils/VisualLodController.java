@@ -0,0 +1,208 @@
+package cn.i7mc.utils;
+
+import cn.i7mc.PlayerDeadManager;
+import cn.i7mc.managers.ConfigManager;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 视觉效果等级控制器 - 根据服务器平均tick耗时自动降低墓碑视觉效果
+ * 负载升高时直接切换到对应等级，负载下降时需要连续多次低于阈值减去回退余量才逐级恢复，避免频繁切换
+ * 所有方法都必须在主线程调用
+ *
+ * @author saga
+ * @version 1.0.0
+ */
+public class VisualLodController {
+
+    /**
+     * 视觉效果等级，按降级顺序排列
+     */
+    public enum Level {
+        /** 完整视觉效果 */
+        FULL("full"),
+        /** 减少粒子数量 */
+        REDUCED_PARTICLES("reduced-particles"),
+        /** 减少粒子数量并降低粒子和全息图刷新频率 */
+        REDUCED_UPDATES("reduced-updates"),
+        /** 停止粒子和全息图刷新 */
+        OFF("off");
+
+        private final String configName;
+
+        Level(@NotNull String configName) {
+            this.configName = configName;
+        }
+
+        /**
+         * 获取等级的配置名称
+         *
+         * @return 配置名称
+         */
+        @NotNull
+        public String getConfigName() {
+            return configName;
+        }
+    }
+
+    private final PlayerDeadManager plugin;
+    private final ConfigManager configManager;
+    private BukkitTask checkTask;
+    private Level level = Level.FULL;
+    private double lastTickTime;
+    private int recoveryChecks;
+
+    // 重载时解析一次的设置
+    private boolean enabled;
+    private final double[] thresholds = new double[Level.values().length];
+    private double recoveryMargin;
+    private int requiredRecoveryChecks;
+    private double particleFactor;
+    private int updateDivisor;
+
+    /**
+     * 构造函数
+     *
+     * @param plugin 插件实例
+     * @param configManager 配置管理器
+     */
+    public VisualLodController(@NotNull PlayerDeadManager plugin, @NotNull ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+
+        reloadSettings();
+        startCheckTask();
+    }
+
+    /**
+     * 重新读取等级设置
+     * 统一的设置解析方法，在构造和配置重载时调用
+     */
+    public void reloadSettings() {
+        enabled = configManager.getBoolean("visual-lod.enabled", true);
+        thresholds[Level.REDUCED_PARTICLES.ordinal()] = configManager.getDouble("visual-lod.reduce-particles-mspt", 40.0);
+        thresholds[Level.REDUCED_UPDATES.ordinal()] = configManager.getDouble("visual-lod.reduce-updates-mspt", 45.0);
+        thresholds[Level.OFF.ordinal()] = configManager.getDouble("visual-lod.off-mspt", 50.0);
+        recoveryMargin = Math.max(0.0, configManager.getDouble("visual-lod.recovery-margin", 5.0));
+        requiredRecoveryChecks = Math.max(1, configManager.getInt("visual-lod.recovery-checks", 3));
+        particleFactor = Math.max(0.0, Math.min(1.0, configManager.getDouble("visual-lod.reduced-particle-factor", 0.4)));
+        updateDivisor = Math.max(1, configManager.getInt("visual-lod.reduced-update-divisor", 4));
+
+        if (!enabled) {
+            level = Level.FULL;
+            recoveryChecks = 0;
+        }
+    }
+
+    /**
+     * 获取当前视觉效果等级
+     *
+     * @return 当前等级
+     */
+    @NotNull
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * 获取最近一次检查时的平均tick耗时
+     *
+     * @return 平均tick耗时（毫秒）
+     */
+    public double getLastTickTime() {
+        return lastTickTime;
+    }
+
+    /**
+     * 按当前等级调整粒子数量
+     * 统一的粒子数量缩放方法，降级后至少保留一个粒子
+     *
+     * @param count 配置的粒子数量
+     * @return 调整后的粒子数量
+     */
+    public int scaleParticleCount(int count) {
+        if (level == Level.FULL || count <= 0) {
+            return count;
+        }
+        return Math.max(1, (int) Math.round(count * particleFactor));
+    }
+
+    /**
+     * 检查本轮刷新是否需要执行
+     * 统一的刷新频率控制方法，降低刷新频率后只执行每reduced-update-divisor轮中的一轮，关闭时不执行
+     *
+     * @param cycle 刷新轮次
+     * @return 是否执行
+     */
+    public boolean shouldRun(long cycle) {
+        return switch (level) {
+            case FULL, REDUCED_PARTICLES -> true;
+            case REDUCED_UPDATES -> cycle % updateDivisor == 0;
+            case OFF -> false;
+        };
+    }
+
+    /**
+     * 关闭控制器
+     * 统一的关闭方法
+     */
+    public void shutdown() {
+        if (checkTask != null) {
+            checkTask.cancel();
+            checkTask = null;
+        }
+    }
+
+    /**
+     * 启动负载检查任务
+     * 统一的任务启动方法
+     */
+    private void startCheckTask() {
+        int checkInterval = Math.max(20, configManager.getInt("visual-lod.check-interval", 100));
+        checkTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::check, checkInterval, checkInterval);
+    }
+
+    /**
+     * 检查服务器负载并调整等级
+     */
+    private void check() {
+        lastTickTime = plugin.getServer().getAverageTickTime();
+        if (!enabled) {
+            return;
+        }
+
+        Level target = Level.FULL;
+        for (Level candidate : Level.values()) {
+            if (candidate != Level.FULL && lastTickTime >= thresholds[candidate.ordinal()]) {
+                target = candidate;
+            }
+        }
+
+        // 负载升高时立即降级
+        if (target.ordinal() > level.ordinal()) {
+            setLevel(target);
+            return;
+        }
+
+        // 负载下降时连续多次低于当前等级阈值减去余量才恢复一级
+        if (level != Level.FULL && lastTickTime < thresholds[level.ordinal()] - recoveryMargin) {
+            if (++recoveryChecks >= requiredRecoveryChecks) {
+                setLevel(Level.values()[level.ordinal() - 1]);
+            }
+        } else {
+            recoveryChecks = 0;
+        }
+    }
+
+    /**
+     * 切换等级并记录日志
+     *
+     * @param newLevel 新等级
+     */
+    private void setLevel(@NotNull Level newLevel) {
+        plugin.getLogger().info("墓碑视觉效果等级: " + level.getConfigName() + " -> " + newLevel.getConfigName()
+            + " (平均tick耗时: " + String.format("%.1f", lastTickTime) + "ms)");
+        level = newLevel;
+        recoveryChecks = 0;
+    }
+}